@@ -3,6 +3,8 @@ package com.hrms.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
@@ -14,6 +16,7 @@ import java.sql.Statement;
  * cannot handle automatically (e.g., dropping NOT NULL constraints from existing columns).
  */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class DatabaseMigrationRunner implements ApplicationRunner {
 
     @Autowired
@@ -33,5 +36,39 @@ public class DatabaseMigrationRunner implements ApplicationRunner {
             // Column might already be nullable (idempotent) or table might not exist yet — both fine
             System.out.println("[DatabaseMigrationRunner] Note: " + e.getMessage());
         }
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            // Password reset OTPs now live in OtpStore instead of the users row
+            stmt.execute("ALTER TABLE users DROP COLUMN IF EXISTS reset_password_otp");
+            stmt.execute("ALTER TABLE users DROP COLUMN IF EXISTS otp_expiry");
+            System.out.println("[DatabaseMigrationRunner] Dropped legacy OTP columns from users");
+        } catch (Exception e) {
+            System.out.println("[DatabaseMigrationRunner] Note: " + e.getMessage());
+        }
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            // Keyset pagination orders on submitted_at, so legacy rows without one need a value
+            int updated = stmt.executeUpdate("UPDATE leaves SET submitted_at = COALESCE(reviewed_at, CAST(start_date AS timestamp)) WHERE submitted_at IS NULL");
+            System.out.println("[DatabaseMigrationRunner] Backfilled submitted_at on " + updated + " leaves");
+        } catch (Exception e) {
+            System.out.println("[DatabaseMigrationRunner] Note: " + e.getMessage());
+        }
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            // The year-end reset keys on last_reset_year. Legacy balances were never reset explicitly, so mark
+            // them as last reset in the previous year: a balance merely touched this January still gets its reset.
+            int updated = stmt.executeUpdate("UPDATE leave_balances SET last_reset_year = CAST(EXTRACT(YEAR FROM CURRENT_DATE) AS integer) - 1 WHERE last_reset_year IS NULL");
+            System.out.println("[DatabaseMigrationRunner] Seeded last_reset_year on " + updated + " leave balances");
+        } catch (Exception e) {
+            System.out.println("[DatabaseMigrationRunner] Note: " + e.getMessage());
+        }
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            // OTP emails used to go through the outbox; drop the copies that still hold plaintext codes
+            int deleted = stmt.executeUpdate("DELETE FROM email_outbox WHERE subject = 'Your Password Reset OTP'");
+            System.out.println("[DatabaseMigrationRunner] Removed " + deleted + " OTP emails from the outbox");
+        } catch (Exception e) {
+            System.out.println("[DatabaseMigrationRunner] Note: " + e.getMessage());
+        }
     }
 }
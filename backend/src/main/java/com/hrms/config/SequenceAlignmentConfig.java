@@ -0,0 +1,78 @@
+package com.hrms.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves the pooled id sequences past existing rows before JPA starts, so no repository,
+ * scheduler or request can draw an id that the old identity column already handed out.
+ */
+@Configuration
+public class SequenceAlignmentConfig {
+
+    // Tables that moved from IDENTITY to pooled sequences; the increment must match allocationSize
+    private static final String[] TABLES = {"timesheets", "leave_details", "leave_calendar_day", "leave_ledger", "notifications"};
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Bean
+    public SequenceAligner sequenceAligner(DataSource dataSource) {
+        return new SequenceAligner(dataSource);
+    }
+
+    // Makes entityManagerFactory wait for sequenceAligner, the same hook Boot uses for Flyway
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor sequenceAlignerDependsOn() {
+        return new EntityManagerFactoryDependsOnPostProcessor("sequenceAligner");
+    }
+
+    public static class SequenceAligner implements InitializingBean {
+
+        private final DataSource dataSource;
+
+        SequenceAligner(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * Creates each sequence the way Hibernate would if it is missing, then moves it forward past the
+         * table's highest id. Tables that do not exist yet are skipped; Hibernate creates them empty.
+         * Any other failure stops startup, since inserts would otherwise hit duplicate keys.
+         */
+        @Override
+        public void afterPropertiesSet() throws SQLException {
+            int aligned = 0;
+            try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+                for (String table : TABLES) {
+                    if (!tableExists(conn, table)) {
+                        continue;
+                    }
+                    String sequence = table + "_seq";
+                    stmt.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+                    stmt.execute("SELECT setval('" + sequence + "', GREATEST((SELECT last_value FROM " + sequence + "), "
+                            + "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + "))");
+                    aligned++;
+                }
+            }
+            System.out.println("[SequenceAligner] Aligned " + aligned + " id sequences with existing rows");
+        }
+
+        private boolean tableExists(Connection conn, String table) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+                ps.setString(1, table);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() && rs.getBoolean(1);
+                }
+            }
+        }
+    }
+}
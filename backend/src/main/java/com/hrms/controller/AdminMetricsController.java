@@ -0,0 +1,63 @@
+package com.hrms.controller;
+
+import com.hrms.dto.ApiResponse;
+import com.hrms.scheduler.LeaveBalanceScheduler;
+import com.hrms.security.LoginAttemptLimiter;
+import com.hrms.security.PasswordVerificationExecutor;
+import com.hrms.service.EmailOutboxService;
+import com.hrms.service.MyUserDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runtime counters for caches and background work, used to size them in production.
+ */
+@RestController
+@RequestMapping("/api/admin/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMetricsController {
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private LeaveBalanceScheduler leaveBalanceScheduler;
+
+    @GetMapping("/login")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLoginStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(passwordVerificationExecutor.getStats());
+        stats.put("throttledAttempts", loginAttemptLimiter.getRejectedAttempts());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @GetMapping("/email-outbox")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getEmailOutboxStats() {
+        return ResponseEntity.ok(ApiResponse.success(emailOutboxService.getStats()));
+    }
+
+    @GetMapping("/leave-balance-refresh")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLeaveBalanceRefreshStats() {
+        return ResponseEntity.ok(ApiResponse.success(leaveBalanceScheduler.getStats()));
+    }
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(userDetailsService.getCacheStats()));
+    }
+}
@@ -2,10 +2,12 @@ package com.hrms.controller;
 
 import com.hrms.dto.ApiResponse;
 import com.hrms.dto.CalendarAttendanceDTO;
+import com.hrms.service.LeaveCalendarService;
 import com.hrms.service.LeaveService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -18,6 +20,9 @@ public class AttendanceController {
     @Autowired
     private LeaveService leaveService;
 
+    @Autowired
+    private LeaveCalendarService leaveCalendarService;
+
     @GetMapping("/calendar")
     public ResponseEntity<ApiResponse<CalendarAttendanceDTO>> getCalendarAttendance(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
@@ -33,4 +38,12 @@ public class AttendanceController {
             return ResponseEntity.status(500).body(ApiResponse.error("Internal Server Error: " + errorMsg));
         }
     }
+
+    // Backfill/repair for the leave_calendar_day read model
+    @PostMapping("/calendar/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildCalendar() {
+        int rows = leaveCalendarService.rebuildAll();
+        return ResponseEntity.ok(ApiResponse.success("Leave calendar rebuilt", rows));
+    }
 }
@@ -1,14 +1,21 @@
 package com.hrms.controller;
 
+import com.hrms.model.Employee;
 import com.hrms.model.User;
+import com.hrms.model.UserPrincipal;
+import com.hrms.repository.EmployeeRepository;
 import com.hrms.repository.UserRepository;
 import com.hrms.service.EmailService;
+import com.hrms.service.MyUserDetailsService;
 import jakarta.servlet.http.HttpServletRequest;
 
-import java.time.LocalDateTime;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +28,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import com.hrms.security.JwtUtils;
+import com.hrms.security.LoginAttemptLimiter;
+import com.hrms.security.OtpStore;
+import com.hrms.security.PasswordVerificationExecutor;
+import com.hrms.security.TokenVersionRegistry;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -41,34 +52,85 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    private static final Duration OTP_TTL = Duration.ofMinutes(10);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(
+    public CompletableFuture<ResponseEntity<?>> login(
             @RequestBody Map<String, String> body,
             HttpServletRequest request
     ) {
-        Authentication authentication =
+        String username = body.get("username");
+
+        // Throttle before any BCrypt work is done
+        if (!loginAttemptLimiter.tryAcquire(username, request.getRemoteAddr())) {
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("message", "Too many login attempts. Please try again later.")));
+        }
+
+        // Password hashing runs on the bounded verification pool, not on the request thread
+        return passwordVerificationExecutor.submit(() ->
                 authenticationManager.authenticate(
                         new UsernamePasswordAuthenticationToken(
-                                body.get("username"),
+                                username,
                                 body.get("password")
                         )
-                );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
-        return ResponseEntity.ok(Map.of("token", jwt));
+                ))
+                .<ResponseEntity<?>>thenApply(authentication -> {
+                    loginAttemptLimiter.resetUser(username);
+
+                    // Resolve the employee once at login so it can travel inside the token
+                    Long employeeId = null;
+                    if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+                        User user = principal.getUser();
+                        employeeId = employeeRepository.findByUser_Id(user.getId()).map(Employee::getId).orElse(null);
+                        tokenVersionRegistry.register(user);
+                    }
+                    String jwt = jwtUtils.generateJwtToken(authentication, employeeId);
+
+                    return ResponseEntity.ok(Map.of("token", jwt));
+                })
+                .exceptionally(ex -> {
+                    if (ex.getCause() instanceof RejectedExecutionException) {
+                        return ResponseEntity
+                                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("message", "Login service is busy. Please try again shortly."));
+                    }
+                    throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+                });
     }
 
     @PostMapping("/auth/forgot-password")
-    public ResponseEntity<?> forgotPassword(@RequestParam String email) {
+    public ResponseEntity<?> forgotPassword(@RequestParam String email, HttpServletRequest request) {
+        // Limited before the lookup so it also slows down probing for registered emails
+        if (!loginAttemptLimiter.tryAcquireOtpIssue(email, request.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("message", "Too many OTP requests. Please try again later."));
+        }
         Optional<User> userOptional = userRepository.findByEmail(email);
         if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            String otp = String.format("%06d", new Random().nextInt(999999));
-            user.setResetPasswordOtp(otp);
-            user.setOtpExpiry(LocalDateTime.now().plusMinutes(10));
-            userRepository.save(user);
+            String otp = String.format("%06d", secureRandom.nextInt(1_000_000));
+            otpStore.put(email, otp, OTP_TTL);
 
             try {
                 emailService.sendOtpEmail(email, otp);
@@ -90,16 +152,17 @@ public class AuthController {
         Optional<User> userOptional = userRepository.findByEmail(email);
         if (userOptional.isPresent()) {
             User user = userOptional.get();
-            if (user.getResetPasswordOtp() != null && 
-                user.getResetPasswordOtp().equals(otp) && 
-                user.getOtpExpiry().isAfter(LocalDateTime.now())) {
-                
+            OtpStore.Result result = otpStore.verify(email, otp);
+            if (result == OtpStore.Result.VALID) {
                 user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetPasswordOtp(null);
-                user.setOtpExpiry(null);
                 userRepository.save(user);
+                userDetailsService.evict(user.getUsername());
                 return ResponseEntity.ok(Map.of("message", "Password reset successful"));
             }
+            if (result == OtpStore.Result.TOO_MANY_ATTEMPTS) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .body(Map.of("message", "Too many invalid attempts. Please try again later."));
+            }
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "Invalid or expired OTP"));
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Email not found"));
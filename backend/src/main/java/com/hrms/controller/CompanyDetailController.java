@@ -5,6 +5,7 @@ import com.hrms.model.CompanyDetail;
 import com.hrms.model.Employee;
 import com.hrms.repository.CompanyDetailRepository;
 import com.hrms.repository.EmployeeRepository;
+import com.hrms.service.LeaveBalanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +22,9 @@ public class CompanyDetailController {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
     @GetMapping("/missing")
     public ResponseEntity<?> getEmployeesWithoutDetails() {
         List<Employee> employees = employeeRepository.findEmployeesWithoutCompanyDetails();
@@ -42,6 +46,7 @@ public class CompanyDetailController {
         
         details.setEmployee(employee);
         CompanyDetail saved = companyDetailRepository.save(details);
+        leaveBalanceService.evictBalanceView(employeeId);
         
         return ResponseEntity.ok(ApiResponse.success("Company details added successfully", saved));
     }
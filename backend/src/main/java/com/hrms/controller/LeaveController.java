@@ -1,16 +1,28 @@
 package com.hrms.controller;
 
 import com.hrms.dto.ApiResponse;
+import com.hrms.dto.BulkLeaveDecisionResult;
+import com.hrms.dto.CursorPage;
 import com.hrms.dto.LeaveDTO;
+import com.hrms.dto.LeavePreviewDTO;
+import com.hrms.dto.LeaveOverlapDTO;
 import com.hrms.model.LeaveBalance;
+import com.hrms.model.LeaveLedgerEntry;
+import com.hrms.model.UserPrincipal;
 import com.hrms.service.LeaveService;
 import com.hrms.service.LeaveBalanceService;
+import com.hrms.service.LeaveLedgerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Comparator;
@@ -26,6 +38,9 @@ public class LeaveController {
     
     @Autowired
     private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
     
     @GetMapping
     public ResponseEntity<ApiResponse<List<LeaveDTO>>> getAllLeaves() {
@@ -33,6 +48,22 @@ public class LeaveController {
         return ResponseEntity.ok(ApiResponse.success(leaves));
     }
     
+    // Paginated, filterable listing; see LeaveService.searchLeaves
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPage<LeaveDTO>>> searchLeaves(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String leaveType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<LeaveDTO> page = leaveService.searchLeaves(employeeId, departmentId, status, leaveType,
+                from, to, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<LeaveDTO>> getLeaveById(@PathVariable Long id) {
         LeaveDTO leave = leaveService.getLeaveById(id);
@@ -58,6 +89,21 @@ public class LeaveController {
                 .body(ApiResponse.success("Leave application submitted successfully", created));
     }
     
+    // Dry run of POST /api/leaves: nothing is written, violations are listed instead of thrown
+    @PostMapping("/preview")
+    public ResponseEntity<ApiResponse<LeavePreviewDTO>> previewLeave(@RequestBody LeaveDTO dto) {
+        return ResponseEntity.ok(ApiResponse.success(leaveService.previewLeave(dto)));
+    }
+
+    // Audit of existing overlapping pending/approved leaves, optionally for one employee
+    @GetMapping("/overlaps")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<LeaveOverlapDTO>>> getOverlappingLeaves(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(leaveService.findOverlappingLeaves(employeeId, limit)));
+    }
+
     @PostMapping("/{id}/approve")
     public ResponseEntity<ApiResponse<LeaveDTO>> approveLeave(
             @PathVariable Long id,
@@ -77,12 +123,62 @@ public class LeaveController {
         return ResponseEntity.ok(ApiResponse.success("Leave rejected", rejected));
     }
     
+    // Body: { "ids": [..], "decision": "APPROVE" | "REJECT", "reason": ".." }; the approver is the caller
+    @PostMapping("/bulk-decision")
+    @PreAuthorize("hasAnyRole('REPORTING_MANAGER', 'HR', 'ADMIN')")
+    public ResponseEntity<ApiResponse<BulkLeaveDecisionResult>> bulkDecision(
+            Authentication authentication,
+            @RequestBody Map<String, Object> request) {
+        if (!(request.get("ids") instanceof List<?> rawIds)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids are required");
+        }
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        List<Long> ids = rawIds.stream().map(id -> Long.valueOf(id.toString())).toList();
+        Long approverId = principal.getUser().getId();
+        String decision = String.valueOf(request.get("decision"));
+        String reason = request.get("reason") != null ? request.get("reason").toString() : null;
+        BulkLeaveDecisionResult result = leaveService.bulkDecision(ids, decision, approverId, reason);
+        return ResponseEntity.ok(ApiResponse.success(
+                result.getUpdated().size() + " leave(s) processed, " + result.getSkipped().size() + " skipped", result));
+    }
+
     @GetMapping("/balance/{employeeId}")
     public ResponseEntity<ApiResponse<LeaveBalance>> getLeaveBalance(@PathVariable Long employeeId) {
         LeaveBalance balance = leaveBalanceService.getLeaveBalance(employeeId);
         return ResponseEntity.ok(ApiResponse.success(balance));
     }
     
+    // Balance as it stood at the end of the given day, rebuilt from the leave ledger
+    @GetMapping("/balance/{employeeId}/as-of")
+    public ResponseEntity<ApiResponse<LeaveBalance>> getLeaveBalanceAsOf(
+            @PathVariable Long employeeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LeaveBalance balance = leaveLedgerService.balanceAsOf(employeeId, date.plusDays(1).atStartOfDay());
+        return ResponseEntity.ok(ApiResponse.success(balance));
+    }
+
+    @GetMapping("/ledger/{employeeId}")
+    public ResponseEntity<ApiResponse<List<LeaveLedgerEntry>>> getLedger(
+            @PathVariable Long employeeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(leaveLedgerService.getEntries(employeeId, from, to)));
+    }
+
+    // Re-runnable; only balances not yet reset for the year are touched. Only the current year is accepted:
+    // stamping an older year would move last_reset_year backwards and re-arm the rollover.
+    @PostMapping("/balance/year-end-reset")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> runYearEndReset(@RequestParam(required = false) Integer year) {
+        int target = LocalDate.now().getYear();
+        if (year != null && year != target) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only the current year (" + target + ") can be reset");
+        }
+        return ResponseEntity.ok(ApiResponse.success("Year-end reset completed", leaveBalanceService.runYearEndReset(target)));
+    }
+
     @PostMapping("/balance/initialize/{employeeId}")
     public ResponseEntity<ApiResponse<LeaveBalance>> initializeLeaveBalance(@PathVariable Long employeeId) {
         LeaveBalance balance = leaveBalanceService.initializeLeaveBalance(employeeId);
@@ -96,7 +192,7 @@ public class LeaveController {
         // Sort: pending on top, then by date (optional)
         leaves.sort(Comparator.comparing((Leave l) -> !"PENDING".equalsIgnoreCase(l.getStatus().name()))
                 .thenComparing(Leave::getStartDate));
-        List<LeaveDTO> dtos = leaves.stream().map(leaveService::convertToDTO).toList();
+        List<LeaveDTO> dtos = leaveService.convertToDTOs(leaves);
         return ResponseEntity.ok(ApiResponse.success(dtos));
     }
 }
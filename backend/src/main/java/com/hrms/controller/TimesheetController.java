@@ -1,20 +1,29 @@
 package com.hrms.controller;
 
 import com.hrms.dto.ApiResponse;
+import com.hrms.dto.CursorPage;
 import com.hrms.dto.TimesheetDTO;
 import com.hrms.dto.EmployeeDTO;
+import com.hrms.dto.WeeklyTimesheetSaveResult;
 import com.hrms.model.User;
 import com.hrms.model.UserPrincipal;
 import com.hrms.model.Role;
+import com.hrms.model.TimesheetStatus;
+import com.hrms.service.TimesheetExportService;
 import com.hrms.service.TimesheetService;
 import com.hrms.service.EmployeeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -32,10 +41,16 @@ public class TimesheetController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private TimesheetExportService timesheetExportService;
+
     private Long getEmployeeIdFromAuth(Authentication authentication) {
         if (authentication != null && authentication.isAuthenticated()
                 && authentication.getPrincipal() instanceof UserPrincipal) {
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+            if (userPrincipal.getEmployeeId() != null) {
+                return userPrincipal.getEmployeeId();
+            }
             User user = userPrincipal.getUser();
             try {
                 EmployeeDTO employee = employeeService.getEmployeeByUserId(user.getId());
@@ -47,35 +62,95 @@ public class TimesheetController {
         return null;
     }
 
+    /**
+     * EMPLOYEE and REPORTING_MANAGER only ever see their own timesheets; ADMIN and HR can see anyone's.
+     * Never falls back to the requested employeeId: anonymous callers get 401, and a restricted role whose
+     * own employee record cannot be resolved gets 403.
+     */
+    private Long resolveEmployeeFilter(Authentication authentication, Long employeeId) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        Role role = principal.getUser().getRole();
+        if (role == Role.ADMIN || role == Role.HR) {
+            return employeeId;
+        }
+        Long authEmployeeId = getEmployeeIdFromAuth(authentication);
+        if (authEmployeeId == null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No employee profile linked to this account");
+        }
+        return authEmployeeId;
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<TimesheetDTO>>> getAllTimesheets(
+            Authentication authentication,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String status) {
+
+        // Unpaged; the admin and HR listings load week ranges through /page instead
+        List<TimesheetDTO> timesheets = timesheetService.getAllTimesheets(
+                resolveEmployeeFilter(authentication, employeeId), fromDate, toDate, status);
+        return ResponseEntity.ok(ApiResponse.success(timesheets));
+    }
+
+    // Keyset-paginated listing: pass nextCursor from the previous page as cursor
+    @GetMapping("/page")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<CursorPage<TimesheetDTO>>> searchTimesheets(
             Authentication authentication,
             @RequestParam(required = false) Long employeeId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false, defaultValue = "0") Integer page,
-            @RequestParam(required = false, defaultValue = "10") Integer size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<TimesheetDTO> page = timesheetService.searchTimesheets(
+                resolveEmployeeFilter(authentication, employeeId), fromDate, toDate, status, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
 
-        Long effectiveEmployeeId = employeeId;
-        
-        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
-            UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
-            User user = principal.getUser();
-            
-            // If user is just an EMPLOYEE or REPORTING_MANAGER, force them to only see their own timesheets.
-            // ADMIN and HR can see anyone's timesheets.
-            if (user.getRole() == Role.EMPLOYEE || user.getRole() == Role.REPORTING_MANAGER) {
-                Long authEmployeeId = getEmployeeIdFromAuth(authentication);
-                if (authEmployeeId != null) {
-                    effectiveEmployeeId = authEmployeeId;
-                }
+    // Streams CSV (default) or XLSX for billing; rows go straight from a JDBC cursor to the response
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportTimesheets(
+            Authentication authentication,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        // Validate everything up front: once streaming starts, errors can no longer become a JSON response
+        TimesheetExportService.Format exportFormat;
+        TimesheetStatus statusEnum = null;
+        try {
+            exportFormat = TimesheetExportService.Format.valueOf(format.trim().toUpperCase());
+            if (status != null && !status.isBlank()) {
+                statusEnum = TimesheetStatus.valueOf(status.trim().toUpperCase());
             }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format or status");
         }
 
-        List<TimesheetDTO> timesheets = timesheetService.getAllTimesheets(
-                effectiveEmployeeId, fromDate, toDate, status, page, size);
-        return ResponseEntity.ok(ApiResponse.success(timesheets));
+        Long effectiveEmployeeId = resolveEmployeeFilter(authentication, employeeId);
+        TimesheetStatus filterStatus = statusEnum;
+        StreamingResponseBody body = out -> timesheetExportService.export(
+                effectiveEmployeeId, fromDate, toDate, filterStatus, exportFormat, out);
+
+        String filename = "timesheets"
+                + (fromDate != null ? "_" + fromDate : "") + (toDate != null ? "_" + toDate : "")
+                + (exportFormat == TimesheetExportService.Format.XLSX ? ".xlsx" : ".csv");
+        MediaType contentType = exportFormat == TimesheetExportService.Format.XLSX
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
@@ -137,7 +212,7 @@ public class TimesheetController {
     }
 
     @PostMapping("/save-weekly")
-    public ResponseEntity<ApiResponse<Void>> saveWeekly(
+    public ResponseEntity<ApiResponse<WeeklyTimesheetSaveResult>> saveWeekly(
             @RequestBody Map<String, Object> request,
             Authentication authentication) {
         
@@ -152,6 +227,8 @@ public class TimesheetController {
         // Convert Map to DTOs
         List<TimesheetDTO> dtos = entriesList.stream().map(m -> {
             TimesheetDTO d = new TimesheetDTO();
+            // Ids of rows loaded into the grid let the service match edits to the stored row
+            if (m.get("id") instanceof Number id) d.setId(id.longValue());
             d.setDate(LocalDate.parse(m.get("date").toString()));
             if (m.get("startTime") != null) d.setStartTime(java.time.LocalTime.parse(m.get("startTime").toString()));
             if (m.get("endTime") != null) d.setEndTime(java.time.LocalTime.parse(m.get("endTime").toString()));
@@ -173,7 +250,7 @@ public class TimesheetController {
         }).collect(Collectors.toList());
 
 
-        timesheetService.saveWeeklyTimesheet(employeeId, weekStart, dtos);
-        return ResponseEntity.ok(ApiResponse.success("Weekly timesheet saved successfully", null));
+        WeeklyTimesheetSaveResult result = timesheetService.saveWeeklyTimesheet(employeeId, weekStart, dtos);
+        return ResponseEntity.ok(ApiResponse.success("Weekly timesheet saved successfully", result));
     }
 }
@@ -11,6 +11,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -20,6 +21,8 @@ import com.hrms.model.Role;
 import com.hrms.model.User;
 import com.hrms.model.UserPrincipal;
 import com.hrms.repository.UserRepository;
+import com.hrms.service.EmailDigestService;
+import com.hrms.service.EmployeeReportingService;
 import com.hrms.service.EmployeeService;
 
 @RestController
@@ -31,6 +34,12 @@ public class UserController {
 	@Autowired
 	private EmployeeService employeeService;
 
+	@Autowired
+	private EmployeeReportingService employeeReportingService;
+
+	@Autowired
+	private EmailDigestService emailDigestService;
+
 	@GetMapping("/me")
 	public ResponseEntity<?> me(Authentication authentication) {
 
@@ -43,7 +52,12 @@ public class UserController {
 		Object principal = authentication.getPrincipal();
 
 		if (principal instanceof UserPrincipal userPrincipal) {
-			return ResponseEntity.ok(userPrincipal.getUser());
+			// A principal rebuilt from JWT claims only carries id/username/role, so load the full row here
+			return userRepository.findById(userPrincipal.getUser().getId())
+					.<ResponseEntity<?>>map(ResponseEntity::ok)
+					.orElseGet(() -> ResponseEntity
+							.status(HttpStatus.UNAUTHORIZED)
+							.body(Map.of("error", "User not found")));
 		}
 
 		return ResponseEntity
@@ -139,10 +153,6 @@ public class UserController {
 						.body(Map.of("message", "Role is required"));
 			}
 
-			// Find user by ID
-			User user = userRepository.findById(userId)
-					.orElseThrow(() -> new RuntimeException("User not found"));
-
 			// Validate role
 			Role role;
 			try {
@@ -154,8 +164,7 @@ public class UserController {
 			}
 
 			// Update user role
-			user.setRole(role);
-			User updatedUser = userRepository.save(user);
+			User updatedUser = employeeReportingService.changeUserRole(userId, role);
 
 			return ResponseEntity.ok(Map.of(
 					"message", "User role updated successfully",
@@ -167,4 +176,25 @@ public class UserController {
 		}
 	}
 
+
+	// Submission email digest: 0 = immediate emails, otherwise at most one digest every N minutes
+	@GetMapping("/api/users/me/email-digest")
+	public ResponseEntity<?> getEmailDigest(Authentication authentication) {
+		if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not authenticated"));
+		}
+		return ResponseEntity.ok(emailDigestService.getPreferenceForUser(userPrincipal.getUser().getId()));
+	}
+
+	@PutMapping("/api/users/me/email-digest")
+	public ResponseEntity<?> updateEmailDigest(Authentication authentication, @RequestBody Map<String, Integer> request) {
+		if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Not authenticated"));
+		}
+		Integer intervalMinutes = request.get("intervalMinutes");
+		if (intervalMinutes == null) {
+			return ResponseEntity.badRequest().body(Map.of("message", "intervalMinutes is required"));
+		}
+		return ResponseEntity.ok(emailDigestService.setPreferenceForUser(userPrincipal.getUser().getId(), intervalMinutes));
+	}
 }
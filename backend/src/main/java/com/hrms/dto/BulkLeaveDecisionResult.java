@@ -0,0 +1,28 @@
+package com.hrms.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of POST /api/leaves/bulk-decision: the leaves that were decided, and the ids that were
+ * skipped with the reason (not found, no longer pending).
+ */
+public class BulkLeaveDecisionResult {
+    private List<LeaveDTO> updated = new ArrayList<>();
+    private Map<Long, String> skipped = new LinkedHashMap<>();
+
+    public BulkLeaveDecisionResult() {}
+
+    public BulkLeaveDecisionResult(List<LeaveDTO> updated, Map<Long, String> skipped) {
+        this.updated = updated;
+        this.skipped = skipped;
+    }
+
+    // Getters and Setters
+    public List<LeaveDTO> getUpdated() { return updated; }
+    public void setUpdated(List<LeaveDTO> updated) { this.updated = updated; }
+    public Map<Long, String> getSkipped() { return skipped; }
+    public void setSkipped(Map<Long, String> skipped) { this.skipped = skipped; }
+}
@@ -0,0 +1,45 @@
+package com.hrms.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One pair of active (pending or approved) leaves of the same employee whose date ranges intersect.
+ */
+public class LeaveOverlapDTO {
+    private Long employeeId;
+    private Long leaveId;
+    private LocalDate leaveStart;
+    private LocalDate leaveEnd;
+    private Long overlappingLeaveId;
+    private LocalDate overlappingStart;
+    private LocalDate overlappingEnd;
+
+    public LeaveOverlapDTO() {}
+
+    public LeaveOverlapDTO(Long employeeId, Long leaveId, LocalDate leaveStart, LocalDate leaveEnd,
+                           Long overlappingLeaveId, LocalDate overlappingStart, LocalDate overlappingEnd) {
+        this.employeeId = employeeId;
+        this.leaveId = leaveId;
+        this.leaveStart = leaveStart;
+        this.leaveEnd = leaveEnd;
+        this.overlappingLeaveId = overlappingLeaveId;
+        this.overlappingStart = overlappingStart;
+        this.overlappingEnd = overlappingEnd;
+    }
+
+    // Getters and Setters
+    public Long getEmployeeId() { return employeeId; }
+    public void setEmployeeId(Long employeeId) { this.employeeId = employeeId; }
+    public Long getLeaveId() { return leaveId; }
+    public void setLeaveId(Long leaveId) { this.leaveId = leaveId; }
+    public LocalDate getLeaveStart() { return leaveStart; }
+    public void setLeaveStart(LocalDate leaveStart) { this.leaveStart = leaveStart; }
+    public LocalDate getLeaveEnd() { return leaveEnd; }
+    public void setLeaveEnd(LocalDate leaveEnd) { this.leaveEnd = leaveEnd; }
+    public Long getOverlappingLeaveId() { return overlappingLeaveId; }
+    public void setOverlappingLeaveId(Long overlappingLeaveId) { this.overlappingLeaveId = overlappingLeaveId; }
+    public LocalDate getOverlappingStart() { return overlappingStart; }
+    public void setOverlappingStart(LocalDate overlappingStart) { this.overlappingStart = overlappingStart; }
+    public LocalDate getOverlappingEnd() { return overlappingEnd; }
+    public void setOverlappingEnd(LocalDate overlappingEnd) { this.overlappingEnd = overlappingEnd; }
+}
@@ -0,0 +1,69 @@
+package com.hrms.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of POST /api/leaves/preview: what createLeave would charge and whether it would accept the request.
+ */
+public class LeavePreviewDTO {
+    private boolean allowed;
+    private List<String> violations = new ArrayList<>();
+    private List<String> warnings = new ArrayList<>();
+
+    private String leaveType;
+    private Double chargeableDays;
+    private Double balanceBefore;
+    private Double balanceAfter;
+    private LocalDate eligibilityDate;
+    private LocalDate earnedLeaveEligibilityDate;
+    private List<DayPreview> days = new ArrayList<>();
+
+    public static class DayPreview {
+        private LocalDate date;
+        private String session;
+        private double chargeable;
+        private String note; // WEEKEND, HOLIDAY or null
+
+        public DayPreview() {}
+
+        public DayPreview(LocalDate date, String session, double chargeable, String note) {
+            this.date = date;
+            this.session = session;
+            this.chargeable = chargeable;
+            this.note = note;
+        }
+
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        public String getSession() { return session; }
+        public void setSession(String session) { this.session = session; }
+        public double getChargeable() { return chargeable; }
+        public void setChargeable(double chargeable) { this.chargeable = chargeable; }
+        public String getNote() { return note; }
+        public void setNote(String note) { this.note = note; }
+    }
+
+    // Getters and Setters
+    public boolean isAllowed() { return allowed; }
+    public void setAllowed(boolean allowed) { this.allowed = allowed; }
+    public List<String> getViolations() { return violations; }
+    public void setViolations(List<String> violations) { this.violations = violations; }
+    public List<String> getWarnings() { return warnings; }
+    public void setWarnings(List<String> warnings) { this.warnings = warnings; }
+    public String getLeaveType() { return leaveType; }
+    public void setLeaveType(String leaveType) { this.leaveType = leaveType; }
+    public Double getChargeableDays() { return chargeableDays; }
+    public void setChargeableDays(Double chargeableDays) { this.chargeableDays = chargeableDays; }
+    public Double getBalanceBefore() { return balanceBefore; }
+    public void setBalanceBefore(Double balanceBefore) { this.balanceBefore = balanceBefore; }
+    public Double getBalanceAfter() { return balanceAfter; }
+    public void setBalanceAfter(Double balanceAfter) { this.balanceAfter = balanceAfter; }
+    public LocalDate getEligibilityDate() { return eligibilityDate; }
+    public void setEligibilityDate(LocalDate eligibilityDate) { this.eligibilityDate = eligibilityDate; }
+    public LocalDate getEarnedLeaveEligibilityDate() { return earnedLeaveEligibilityDate; }
+    public void setEarnedLeaveEligibilityDate(LocalDate earnedLeaveEligibilityDate) { this.earnedLeaveEligibilityDate = earnedLeaveEligibilityDate; }
+    public List<DayPreview> getDays() { return days; }
+    public void setDays(List<DayPreview> days) { this.days = days; }
+}
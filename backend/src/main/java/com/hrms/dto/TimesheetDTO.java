@@ -1,5 +1,6 @@
 package com.hrms.dto;
 
+import com.hrms.model.TimesheetStatus;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -33,6 +34,38 @@ public class TimesheetDTO {
     private String category;
     private String leaveType;
 
+    public TimesheetDTO() {}
+
+    /**
+     * Projection constructor for list queries: exactly the columns below, with the employee name
+     * joined in, instead of a hydrated Timesheet and its eager employee graph.
+     */
+    public TimesheetDTO(Long id, Long employeeId, String employeeFirstName, String employeeLastName, LocalDate date,
+                        LocalTime startTime, LocalTime endTime, Double totalHours, String project, String task,
+                        String notes, TimesheetStatus status, String managerComments, String onsiteOffshore,
+                        String billingLocation, Boolean billable, String projectName, String taskDescription,
+                        String category, String leaveType) {
+        this.id = id;
+        this.employeeId = employeeId;
+        this.employeeName = employeeFirstName + " " + employeeLastName;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.totalHours = totalHours;
+        this.project = project;
+        this.task = task;
+        this.notes = notes;
+        this.status = status != null ? status.name() : null;
+        this.managerComments = managerComments;
+        this.onsiteOffshore = onsiteOffshore;
+        this.billingLocation = billingLocation;
+        this.billable = billable;
+        this.projectName = projectName;
+        this.taskDescription = taskDescription;
+        this.category = category;
+        this.leaveType = leaveType;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,83 @@
+package com.hrms.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of POST /api/timesheets/save-weekly: what happened to each row of the week.
+ */
+public class WeeklyTimesheetSaveResult {
+
+    public enum Action { CREATED, UPDATED, UNCHANGED, DELETED }
+
+    public static class RowResult {
+        private Long id;
+        private LocalDate date;
+        private String category;
+        private String project;
+        private String task;
+        private String leaveType;
+        private Action action;
+
+        public RowResult() {}
+
+        public RowResult(Long id, LocalDate date, String category, String project, String task,
+                         String leaveType, Action action) {
+            this.id = id;
+            this.date = date;
+            this.category = category;
+            this.project = project;
+            this.task = task;
+            this.leaveType = leaveType;
+            this.action = action;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+        public String getProject() { return project; }
+        public void setProject(String project) { this.project = project; }
+        public String getTask() { return task; }
+        public void setTask(String task) { this.task = task; }
+        public String getLeaveType() { return leaveType; }
+        public void setLeaveType(String leaveType) { this.leaveType = leaveType; }
+        public Action getAction() { return action; }
+        public void setAction(Action action) { this.action = action; }
+    }
+
+    private int created;
+    private int updated;
+    private int unchanged;
+    private int deleted;
+    private List<RowResult> rows = new ArrayList<>();
+
+    public void add(RowResult row) {
+        rows.add(row);
+        switch (row.getAction()) {
+            case CREATED -> created++;
+            case UPDATED -> updated++;
+            case UNCHANGED -> unchanged++;
+            case DELETED -> deleted++;
+        }
+    }
+
+    public boolean hasChanges() {
+        return created + updated + deleted > 0;
+    }
+
+    // Getters and Setters
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+    public int getUnchanged() { return unchanged; }
+    public void setUnchanged(int unchanged) { this.unchanged = unchanged; }
+    public int getDeleted() { return deleted; }
+    public void setDeleted(int deleted) { this.deleted = deleted; }
+    public List<RowResult> getRows() { return rows; }
+    public void setRows(List<RowResult> rows) { this.rows = rows; }
+}
@@ -0,0 +1,36 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One submission waiting to go out in a recipient's next digest email.
+ */
+@Entity
+@Table(name = "email_digest_item", indexes = {
+    @Index(name = "idx_email_digest_item_recipient", columnList = "recipient, created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailDigestItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    // Section heading in the digest, e.g. "Leave Request Submitted: Jane Doe"
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String details;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,32 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-address choice between immediate submission emails (no row, or interval 0)
+ * and a digest sent at most every intervalMinutes.
+ */
+@Entity
+@Table(name = "email_digest_preference")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailDigestPreference {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stored lower-cased
+    @Column(nullable = false, unique = true)
+    private String email;
+
+    @Column(name = "interval_minutes", nullable = false)
+    private Integer intervalMinutes;
+
+    @Column(name = "last_sent_at")
+    private LocalDateTime lastSentAt;
+}
@@ -7,7 +7,15 @@ import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "leaves")
+@Table(name = "leaves", indexes = {
+    @Index(name = "idx_leaves_status_dates", columnList = "status, start_date, end_date"),
+    // Keyset pagination on (submitted_at, id), alone and behind the common equality filters
+    @Index(name = "idx_leaves_submitted", columnList = "submitted_at, id"),
+    @Index(name = "idx_leaves_employee_submitted", columnList = "employee_id, submitted_at, id"),
+    @Index(name = "idx_leaves_status_submitted", columnList = "status, submitted_at, id"),
+    // Overlap probe: equality on employee, then a range scan on start_date with end_date checked in the index
+    @Index(name = "idx_leaves_employee_range", columnList = "employee_id, start_date, end_date")
+})
 public class Leave {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,10 +26,23 @@ public class LeaveBalance {
     private Double earnedLeavesUsed = 0.0;
     
     private LocalDateTime lastUpdated;
+
+    // Last year whose Jan 1 casual/sick reset has been applied; makes the reset idempotent
+    @JsonIgnore
+    private Integer lastResetYear;
+
+    // Optimistic lock for whole-entity writes; LeaveBalanceRepository's conditional updates bump it too
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
     
     @PrePersist
     protected void onCreate() {
         lastUpdated = LocalDateTime.now();
+        if (lastResetYear == null) {
+            lastResetYear = lastUpdated.getYear();
+        }
     }
     
     @PreUpdate
@@ -127,4 +140,20 @@ public class LeaveBalance {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+    
+    public Integer getLastResetYear() {
+        return lastResetYear;
+    }
+    
+    public void setLastResetYear(Integer lastResetYear) {
+        this.lastResetYear = lastResetYear;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,37 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of one employee as of snapshotAt, i.e. the sum of all ledger entries effective before it.
+ * Taken at the start of every month so "balance as of X" only has to replay a short ledger tail.
+ */
+@Entity
+@Table(name = "leave_balance_snapshot", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_leave_balance_snapshot_employee_time", columnNames = {"employee_id", "snapshot_at"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveBalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    private Double casualLeavesTotal;
+    private Double casualLeavesUsed;
+    private Double sickLeavesTotal;
+    private Double sickLeavesUsed;
+    private Double earnedLeavesTotal;
+    private Double earnedLeavesUsed;
+}
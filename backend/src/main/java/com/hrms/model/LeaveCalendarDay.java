@@ -0,0 +1,44 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Read model for the attendance calendar: one row per (date, employee, session) of an approved leave.
+ * Maintained by LeaveCalendarService when leaves are approved or rejected.
+ */
+@Entity
+@Table(name = "leave_calendar_day", indexes = {
+    @Index(name = "idx_leave_calendar_day_date", columnList = "calendar_date"),
+    @Index(name = "idx_leave_calendar_day_leave", columnList = "leave_id"),
+    @Index(name = "idx_leave_calendar_day_employee", columnList = "employee_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_leave_calendar_day_leave_date", columnNames = {"leave_id", "calendar_date"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveCalendarDay {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leave_calendar_day_seq")
+    @SequenceGenerator(name = "leave_calendar_day_seq", sequenceName = "leave_calendar_day_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "calendar_date", nullable = false)
+    private LocalDate calendarDate;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "leave_id", nullable = false)
+    private Long leaveId;
+
+    @Column(name = "employee_name")
+    private String employeeName;
+
+    @Column(name = "day_type", nullable = false)
+    private String dayType; // FULL, MORNING, AFTERNOON
+}
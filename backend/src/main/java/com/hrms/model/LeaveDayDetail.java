@@ -13,7 +13,8 @@ import java.time.LocalDate;
 @Builder
 public class LeaveDayDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leave_details_seq")
+    @SequenceGenerator(name = "leave_details_seq", sequenceName = "leave_details_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,52 @@
+package com.hrms.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of every change to a leave balance. Rows are never updated or deleted
+ * (other than with the employee); LeaveBalance holds the current totals for fast reads.
+ */
+@Entity
+@Table(name = "leave_ledger", indexes = {
+    @Index(name = "idx_leave_ledger_employee_time", columnList = "employee_id, effective_at"),
+    @Index(name = "idx_leave_ledger_type_time", columnList = "entry_type, effective_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaveLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "leave_ledger_seq")
+    @SequenceGenerator(name = "leave_ledger_seq", sequenceName = "leave_ledger_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "leave_type", nullable = false)
+    private LeaveType leaveType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false)
+    private LedgerEntryType entryType;
+
+    // Signed changes applied to the total and used counters of leaveType
+    @Column(name = "total_delta", nullable = false)
+    private Double totalDelta;
+
+    @Column(name = "used_delta", nullable = false)
+    private Double usedDelta;
+
+    @Column(name = "leave_id")
+    private Long leaveId;
+
+    private String note;
+
+    @Column(name = "effective_at", nullable = false)
+    private LocalDateTime effectiveAt;
+}
@@ -0,0 +1,8 @@
+package com.hrms.model;
+
+public enum LedgerEntryType {
+    ACCRUAL,      // change to the entitled total
+    DEDUCTION,    // leave submitted
+    RESTORATION,  // leave rejected or cancelled
+    RESET         // Jan 1 reset of the used count
+}
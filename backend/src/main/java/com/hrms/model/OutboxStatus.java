@@ -0,0 +1,8 @@
+package com.hrms.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -7,10 +7,17 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "timesheets")
+@Table(name = "timesheets", indexes = {
+    // Keyset pagination on (date, id), alone and behind the employee and status filters
+    @Index(name = "idx_timesheets_date", columnList = "date, id"),
+    @Index(name = "idx_timesheets_employee_date", columnList = "employee_id, date, id"),
+    @Index(name = "idx_timesheets_status_date", columnList = "status, date, id")
+})
 public class Timesheet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence so inserts can be JDBC-batched; IDENTITY forces one round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "timesheets_seq")
+    @SequenceGenerator(name = "timesheets_seq", sequenceName = "timesheets_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
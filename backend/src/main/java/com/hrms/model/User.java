@@ -1,5 +1,6 @@
 package com.hrms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -29,12 +30,13 @@ public class User {
     
     private Boolean active = true;
     
+    // Bumped on role changes so previously issued JWTs are rejected
+    @JsonIgnore
+    private Integer tokenVersion = 0;
+    
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
-    private String resetPasswordOtp;
-    private LocalDateTime otpExpiry;
-    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -59,14 +61,11 @@ public class User {
     public void setRole(Role role) { this.role = role; }
     public Boolean getActive() { return active; }
     public void setActive(Boolean active) { this.active = active; }
+    public Integer getTokenVersion() { return tokenVersion != null ? tokenVersion : 0; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-
-    public String getResetPasswordOtp() { return resetPasswordOtp; }
-    public void setResetPasswordOtp(String resetPasswordOtp) { this.resetPasswordOtp = resetPasswordOtp; }
-    public LocalDateTime getOtpExpiry() { return otpExpiry; }
-    public void setOtpExpiry(LocalDateTime otpExpiry) { this.otpExpiry = otpExpiry; }
 }
 
@@ -65,10 +65,18 @@ public class UserPrincipal implements UserDetails {
 
     private User user;
 
+    // Only known when the principal is rebuilt from JWT claims
+    private Long employeeId;
+
     public UserPrincipal(User user) {
         this.user = user;
     }
 
+    public UserPrincipal(User user, Long employeeId) {
+        this.user = user;
+        this.employeeId = employeeId;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(
@@ -98,4 +106,8 @@ public class UserPrincipal implements UserDetails {
     public User getUser() {
         return user;
     }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
 }
@@ -0,0 +1,23 @@
+package com.hrms.repository;
+
+import com.hrms.model.EmailDigestItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmailDigestItemRepository extends JpaRepository<EmailDigestItem, Long> {
+
+    // Each recipient with pending items and when the oldest of them was queued
+    @Query("SELECT i.recipient, MIN(i.createdAt) FROM EmailDigestItem i GROUP BY i.recipient")
+    List<Object[]> findPendingRecipients();
+
+    // Locks the recipient's items until the digest is queued and they are deleted.
+    // SKIP LOCKED leaves rows another app instance is already flushing to that instance.
+    @Query(value = "SELECT * FROM email_digest_item WHERE recipient = :recipient " +
+                   "ORDER BY created_at FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailDigestItem> claimByRecipient(@Param("recipient") String recipient);
+}
@@ -0,0 +1,15 @@
+package com.hrms.repository;
+
+import com.hrms.model.EmailDigestPreference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailDigestPreferenceRepository extends JpaRepository<EmailDigestPreference, Long> {
+    Optional<EmailDigestPreference> findByEmail(String email);
+    List<EmailDigestPreference> findByEmailIn(Collection<String> emails);
+}
@@ -0,0 +1,28 @@
+package com.hrms.repository;
+
+import com.hrms.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Due messages, including SENDING rows whose lease expired (dispatcher crashed mid-send).
+    // SKIP LOCKED lets several app instances poll the same table without double-sending.
+    @Query(value = "SELECT * FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox o WHERE o.status = com.hrms.model.OutboxStatus.SENT AND o.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT o.status, COUNT(o) FROM EmailOutbox o GROUP BY o.status")
+    List<Object[]> countByStatus();
+}
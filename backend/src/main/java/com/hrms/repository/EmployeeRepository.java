@@ -5,6 +5,7 @@ import com.hrms.model.User;
 import com.hrms.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,8 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
     Optional<Employee> findByUser_Id(Long userId);
 
+    List<Employee> findByUser_IdIn(Collection<Long> userIds);
+
     List<Employee> findByUser_Role(Role role); // Modified to use imported Role
 
     @org.springframework.data.jpa.repository.Query("SELECT e FROM Employee e WHERE e.id NOT IN (SELECT cd.employee.id FROM CompanyDetail cd)")
@@ -2,10 +2,181 @@ package com.hrms.repository;
 
 import com.hrms.model.LeaveBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long> {
     Optional<LeaveBalance> findByEmployeeId(Long employeeId);
+
+    List<LeaveBalance> findByEmployeeIdIn(Collection<Long> employeeIds);
+
+    @Query("SELECT b.id FROM LeaveBalance b ORDER BY b.id")
+    List<Long> findAllIds();
+
+    // One query per refresh chunk: the balances plus each employee's joining date
+    @Query("SELECT b, cd.joiningDate FROM LeaveBalance b LEFT JOIN CompanyDetail cd ON cd.employee = b.employee " +
+           "WHERE b.id IN :ids")
+    List<Object[]> findWithJoiningDate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Set-based equivalent of LeaveBalanceService.refreshLeaveBalance for every employee with a joining date:
+     * recomputes accrued totals, applies the Jan 1 reset, writes the matching leave_ledger rows and bumps
+     * the version, all in one statement. Only rows whose values change are touched.
+     * Ledger ids are taken straight from nextval: with the pooled optimizer each value is the top of a
+     * block that no Hibernate session will hand out.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+            WITH base AS (
+                SELECT b.id, b.employee_id,
+                       COALESCE(b.casual_leaves_total, 0) AS old_ct, COALESCE(b.sick_leaves_total, 0) AS old_st,
+                       COALESCE(b.earned_leaves_total, 0) AS old_et,
+                       COALESCE(b.casual_leaves_used, 0) AS old_cu, COALESCE(b.sick_leaves_used, 0) AS old_su,
+                       COALESCE(b.last_reset_year, EXTRACT(YEAR FROM b.last_updated)) < EXTRACT(YEAR FROM CAST(:today AS date))
+                           AS rollover,
+                       CAST(cd.joining_date + INTERVAL '6 months' AS date) AS eligible_on,
+                       CAST(cd.joining_date + INTERVAL '1 year' AS date) AS el_eligible_on
+                FROM leave_balances b
+                JOIN company_details cd ON cd.employee_id = b.employee_id
+                WHERE cd.joining_date IS NOT NULL
+            ),
+            calc AS (
+                SELECT base.*,
+                       CASE WHEN CAST(:today AS date) < eligible_on THEN 0.0
+                            ELSE CAST(ROUND(CAST(LEAST(10.0, cl_months * 10.0 / 12.0) AS numeric), 2) AS double precision) END AS new_ct,
+                       CASE WHEN CAST(:today AS date) < eligible_on THEN 0.0
+                            ELSE CAST(ROUND(CAST(LEAST(6.0, cl_months * 0.5) AS numeric), 2) AS double precision) END AS new_st,
+                       CASE WHEN CAST(:today AS date) < el_eligible_on THEN 0.0
+                            ELSE CAST(el_months AS double precision) END AS new_et
+                FROM base
+                CROSS JOIN LATERAL (
+                    SELECT (EXTRACT(YEAR FROM CAST(:today AS date)) * 12 + EXTRACT(MONTH FROM CAST(:today AS date)))
+                           - (EXTRACT(YEAR FROM GREATEST(eligible_on, CAST(date_trunc('year', CAST(:today AS date)) AS date))) * 12
+                              + EXTRACT(MONTH FROM GREATEST(eligible_on, CAST(date_trunc('year', CAST(:today AS date)) AS date)))) + 1 AS cl_months,
+                           (EXTRACT(YEAR FROM CAST(:today AS date)) * 12 + EXTRACT(MONTH FROM CAST(:today AS date)))
+                           - (EXTRACT(YEAR FROM el_eligible_on) * 12 + EXTRACT(MONTH FROM el_eligible_on)) + 1 AS el_months
+                ) m
+            ),
+            changed AS (
+                SELECT * FROM calc
+                WHERE rollover OR new_ct <> old_ct OR new_st <> old_st OR new_et <> old_et
+            ),
+            ledger AS (
+                INSERT INTO leave_ledger (id, employee_id, leave_type, entry_type, total_delta, used_delta, note, effective_at)
+                SELECT nextval('leave_ledger_seq'), c.employee_id, v.leave_type, v.entry_type, v.total_delta, v.used_delta, v.note, LOCALTIMESTAMP
+                FROM changed c
+                CROSS JOIN LATERAL (VALUES
+                    ('CASUAL', 'RESET', 0.0, CASE WHEN c.rollover THEN -c.old_cu ELSE 0.0 END, 'Year reset'),
+                    ('SICK', 'RESET', 0.0, CASE WHEN c.rollover THEN -c.old_su ELSE 0.0 END, 'Year reset'),
+                    ('CASUAL', 'ACCRUAL', ROUND(CAST(c.new_ct - c.old_ct AS numeric), 2), 0.0, 'Accrual'),
+                    ('SICK', 'ACCRUAL', ROUND(CAST(c.new_st - c.old_st AS numeric), 2), 0.0, 'Accrual'),
+                    ('EARNED', 'ACCRUAL', ROUND(CAST(c.new_et - c.old_et AS numeric), 2), 0.0, 'Accrual')
+                ) AS v(leave_type, entry_type, total_delta, used_delta, note)
+                WHERE v.total_delta <> 0 OR v.used_delta <> 0
+            )
+            UPDATE leave_balances b
+            SET casual_leaves_total = c.new_ct,
+                sick_leaves_total = c.new_st,
+                earned_leaves_total = c.new_et,
+                casual_leaves_used = CASE WHEN c.rollover THEN 0.0 ELSE b.casual_leaves_used END,
+                sick_leaves_used = CASE WHEN c.rollover THEN 0.0 ELSE b.sick_leaves_used END,
+                last_reset_year = CASE WHEN c.rollover THEN CAST(EXTRACT(YEAR FROM CAST(:today AS date)) AS integer)
+                                       ELSE b.last_reset_year END,
+                version = COALESCE(b.version, 0) + 1,
+                last_updated = LOCALTIMESTAMP
+            FROM changed c
+            WHERE b.id = c.id
+            """, nativeQuery = true)
+    int refreshAllSetBased(@Param("today") LocalDate today);
+
+    /**
+     * Year-end reset of casual/sick used counts for every balance not yet reset for {@code year}, with the
+     * matching RESET ledger rows, in one statement. FOR UPDATE makes a balance that a concurrent refresh
+     * rolls over first drop out of the selection, so its used days are never written to the ledger twice.
+     * Returns one row: [balances reset, ledger entries written].
+     */
+    @Query(value = """
+            WITH due AS (
+                SELECT id, employee_id,
+                       COALESCE(casual_leaves_used, 0) AS casual_used, COALESCE(sick_leaves_used, 0) AS sick_used
+                FROM leave_balances
+                WHERE COALESCE(last_reset_year, EXTRACT(YEAR FROM last_updated)) < :year
+                FOR UPDATE
+            ),
+            reset AS (
+                UPDATE leave_balances b
+                SET casual_leaves_used = 0.0, sick_leaves_used = 0.0, last_reset_year = :year,
+                    version = COALESCE(b.version, 0) + 1, last_updated = LOCALTIMESTAMP
+                FROM due
+                WHERE b.id = due.id
+                RETURNING due.employee_id, due.casual_used, due.sick_used
+            ),
+            ledger AS (
+                INSERT INTO leave_ledger (id, employee_id, leave_type, entry_type, total_delta, used_delta, note, effective_at)
+                SELECT nextval('leave_ledger_seq'), r.employee_id, v.leave_type, 'RESET', 0.0, -v.used,
+                       'Year-end reset ' || :year, LOCALTIMESTAMP
+                FROM reset r
+                CROSS JOIN LATERAL (VALUES ('CASUAL', r.casual_used), ('SICK', r.sick_used)) AS v(leave_type, used)
+                WHERE v.used <> 0
+                RETURNING 1
+            )
+            SELECT (SELECT COUNT(*) FROM reset), (SELECT COUNT(*) FROM ledger)
+            """, nativeQuery = true)
+    List<Object[]> applyYearEndReset(@Param("year") int year);
+
+    // Balances created before the leave ledger existed
+    @Query("SELECT b FROM LeaveBalance b WHERE NOT EXISTS " +
+           "(SELECT 1 FROM LeaveLedgerEntry e WHERE e.employeeId = b.employee.id)")
+    List<LeaveBalance> findWithoutLedgerEntries();
+
+    // Single-statement deductions: the row is only updated if the remaining balance covers the request,
+    // so concurrent submissions can never overdraw. The 0.005 slack matches the 2-decimal rounding of
+    // get*Remaining(). Each returns the number of rows updated (0 = insufficient balance, no row, or days <= 0,
+    // which would otherwise credit the balance).
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.casualLeavesUsed = COALESCE(b.casualLeavesUsed, 0) + :days, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME " +
+           "WHERE b.employee.id = :employeeId " +
+           "AND :days > 0 AND COALESCE(b.casualLeavesTotal, 0) - COALESCE(b.casualLeavesUsed, 0) >= :days - 0.005")
+    int deductCasual(@Param("employeeId") Long employeeId, @Param("days") double days);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.sickLeavesUsed = COALESCE(b.sickLeavesUsed, 0) + :days, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME " +
+           "WHERE b.employee.id = :employeeId " +
+           "AND :days > 0 AND COALESCE(b.sickLeavesTotal, 0) - COALESCE(b.sickLeavesUsed, 0) >= :days - 0.005")
+    int deductSick(@Param("employeeId") Long employeeId, @Param("days") double days);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.earnedLeavesUsed = COALESCE(b.earnedLeavesUsed, 0) + :days, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME " +
+           "WHERE b.employee.id = :employeeId " +
+           "AND :days > 0 AND COALESCE(b.earnedLeavesTotal, 0) - COALESCE(b.earnedLeavesUsed, 0) >= :days - 0.005")
+    int deductEarned(@Param("employeeId") Long employeeId, @Param("days") double days);
+
+    // Restorations never take "used" below zero
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.casualLeavesUsed = CASE WHEN COALESCE(b.casualLeavesUsed, 0) > :days " +
+           "THEN COALESCE(b.casualLeavesUsed, 0) - :days ELSE 0 END, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME WHERE b.employee.id = :employeeId")
+    int restoreCasual(@Param("employeeId") Long employeeId, @Param("days") double days);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.sickLeavesUsed = CASE WHEN COALESCE(b.sickLeavesUsed, 0) > :days " +
+           "THEN COALESCE(b.sickLeavesUsed, 0) - :days ELSE 0 END, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME WHERE b.employee.id = :employeeId")
+    int restoreSick(@Param("employeeId") Long employeeId, @Param("days") double days);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.earnedLeavesUsed = CASE WHEN COALESCE(b.earnedLeavesUsed, 0) > :days " +
+           "THEN COALESCE(b.earnedLeavesUsed, 0) - :days ELSE 0 END, " +
+           "b.version = b.version + 1, b.lastUpdated = LOCAL DATETIME WHERE b.employee.id = :employeeId")
+    int restoreEarned(@Param("employeeId") Long employeeId, @Param("days") double days);
 }
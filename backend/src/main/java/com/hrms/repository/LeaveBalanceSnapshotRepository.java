@@ -0,0 +1,24 @@
+package com.hrms.repository;
+
+import com.hrms.model.LeaveBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LeaveBalanceSnapshotRepository extends JpaRepository<LeaveBalanceSnapshot, Long> {
+
+    Optional<LeaveBalanceSnapshot> findFirstByEmployeeIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+            Long employeeId, LocalDateTime at);
+
+    boolean existsByEmployeeIdAndSnapshotAt(Long employeeId, LocalDateTime snapshotAt);
+
+    @Modifying
+    @Query("DELETE FROM LeaveBalanceSnapshot s WHERE s.employeeId = :employeeId")
+    void deleteByEmployeeId(@Param("employeeId") Long employeeId);
+}
@@ -0,0 +1,29 @@
+package com.hrms.repository;
+
+import com.hrms.model.LeaveCalendarDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LeaveCalendarDayRepository extends JpaRepository<LeaveCalendarDay, Long> {
+    List<LeaveCalendarDay> findByCalendarDateBetweenOrderByCalendarDateAscIdAsc(LocalDate start, LocalDate end);
+
+    @Modifying
+    @Query("DELETE FROM LeaveCalendarDay d WHERE d.leaveId = :leaveId")
+    void deleteByLeaveId(@Param("leaveId") Long leaveId);
+
+    @Modifying
+    @Query("DELETE FROM LeaveCalendarDay d WHERE d.leaveId IN :leaveIds")
+    void deleteByLeaveIdIn(@Param("leaveIds") Collection<Long> leaveIds);
+
+    @Modifying
+    @Query("DELETE FROM LeaveCalendarDay d WHERE d.employeeId = :employeeId")
+    void deleteByEmployeeId(@Param("employeeId") Long employeeId);
+}
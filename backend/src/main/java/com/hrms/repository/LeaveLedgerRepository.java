@@ -0,0 +1,32 @@
+package com.hrms.repository;
+
+import com.hrms.model.LeaveLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    // Ledger tail in [from, to)
+    @Query("SELECT e FROM LeaveLedgerEntry e WHERE e.employeeId = :employeeId " +
+           "AND e.effectiveAt >= :from AND e.effectiveAt < :to ORDER BY e.effectiveAt, e.id")
+    List<LeaveLedgerEntry> findTail(@Param("employeeId") Long employeeId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+
+    List<LeaveLedgerEntry> findByEmployeeIdAndEffectiveAtBetweenOrderByEffectiveAtAscIdAsc(
+            Long employeeId, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT DISTINCT e.employeeId FROM LeaveLedgerEntry e")
+    List<Long> findEmployeeIds();
+
+    @Modifying
+    @Query("DELETE FROM LeaveLedgerEntry e WHERE e.employeeId = :employeeId")
+    void deleteByEmployeeId(@Param("employeeId") Long employeeId);
+}
@@ -3,11 +3,16 @@ package com.hrms.repository;
 import com.hrms.model.Leave;
 import com.hrms.model.LeaveStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface LeaveRepository extends JpaRepository<Leave, Long> {
+public interface LeaveRepository extends JpaRepository<Leave, Long>, JpaSpecificationExecutor<Leave> {
     List<Leave> findByEmployeeId(Long employeeId);
     List<Leave> findByStatus(LeaveStatus status);
     List<Leave> findByEmployeeIdAndStatus(Long employeeId, LeaveStatus status);
@@ -17,5 +22,72 @@ public interface LeaveRepository extends JpaRepository<Leave, Long> {
     List<Leave> findByEmployeeIdIn(List<Long> employeeIds);
 
     List<Leave> findByApprovedBy(com.hrms.model.User user);
+
+    boolean existsByStatus(LeaveStatus status);
+
+    // Compare-and-set on status: returns 1 only for the caller whose UPDATE moved the row, so two
+    // concurrent decisions on the same leave cannot both act on it
+    @Modifying
+    @Query("UPDATE Leave l SET l.status = :to WHERE l.id = :id AND l.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") LeaveStatus from, @Param("to") LeaveStatus to);
+
+    // Set-based claim for bulk decisions: decides every still-PENDING leave in one statement and returns
+    // the ids it actually moved. Not @Modifying, so Spring Data reads the RETURNING rows as a result list.
+    @Query(value = "UPDATE leaves SET status = :status, approved_by_id = :approverId, reviewed_at = :reviewedAt, " +
+            "rejection_reason = COALESCE(CAST(:reason AS varchar), rejection_reason) " +
+            "WHERE id IN (:ids) AND status = 'PENDING' RETURNING id", nativeQuery = true)
+    List<Long> claimPending(@Param("ids") List<Long> ids, @Param("status") String status,
+            @Param("approverId") Long approverId, @Param("reviewedAt") java.time.LocalDateTime reviewedAt,
+            @Param("reason") String reason);
+
+    // Keyset walk over ids for batch jobs; pair with findByIdInWithDetails to load each page
+    @Query("SELECT l.id FROM Leave l WHERE l.status = :status AND l.id > :afterId ORDER BY l.id")
+    List<Long> findIdsByStatusAfter(@Param("status") LeaveStatus status, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Fetch-joined variants for DTO listings: employee, approver and day details in one round trip
+    @Query("SELECT DISTINCT l FROM Leave l JOIN FETCH l.employee LEFT JOIN FETCH l.approvedBy LEFT JOIN FETCH l.dayDetails")
+    List<Leave> findAllWithDetails();
+
+    @Query("SELECT DISTINCT l FROM Leave l JOIN FETCH l.employee LEFT JOIN FETCH l.approvedBy LEFT JOIN FETCH l.dayDetails " +
+           "WHERE l.employee.id = :employeeId ORDER BY l.submittedAt DESC")
+    List<Leave> findByEmployeeIdWithDetails(@Param("employeeId") Long employeeId);
+
+    // Newest-first ids with a database LIMIT; details are then fetched for just these rows
+    @Query("SELECT l.id FROM Leave l WHERE l.employee.id = :employeeId ORDER BY l.submittedAt DESC, l.id DESC")
+    List<Long> findRecentIdsByEmployeeId(@Param("employeeId") Long employeeId, Pageable pageable);
+
+    @Query("SELECT DISTINCT l FROM Leave l JOIN FETCH l.employee LEFT JOIN FETCH l.approvedBy LEFT JOIN FETCH l.dayDetails " +
+           "WHERE l.id IN :ids ORDER BY l.submittedAt DESC, l.id DESC")
+    List<Leave> findByIdInWithDetails(@Param("ids") List<Long> ids);
+
+    // Leaves of one employee whose [startDate, endDate] intersects the given range; served by idx_leaves_employee_range
+    @Query("SELECT l FROM Leave l WHERE l.employee.id = :employeeId AND l.status IN :statuses " +
+           "AND l.startDate <= :endDate AND l.endDate >= :startDate AND l.id <> :excludeId ORDER BY l.startDate")
+    List<Leave> findOverlapping(@Param("employeeId") Long employeeId,
+                                @Param("startDate") java.time.LocalDate startDate,
+                                @Param("endDate") java.time.LocalDate endDate,
+                                @Param("statuses") List<LeaveStatus> statuses,
+                                @Param("excludeId") Long excludeId,
+                                Pageable pageable);
+
+    // Self-join audit: each intersecting pair once (a.id < b.id), one index probe per outer row.
+    // Row: employeeId, a.id, a.startDate, a.endDate, b.id, b.startDate, b.endDate
+    @Query("SELECT a.employee.id, a.id, a.startDate, a.endDate, b.id, b.startDate, b.endDate " +
+           "FROM Leave a, Leave b WHERE b.employee.id = a.employee.id AND b.id > a.id " +
+           "AND b.startDate <= a.endDate AND b.endDate >= a.startDate " +
+           "AND a.status IN :statuses AND b.status IN :statuses ORDER BY a.employee.id, a.id, b.id")
+    List<Object[]> findOverlappingPairs(@Param("statuses") List<LeaveStatus> statuses, Pageable pageable);
+
+    @Query("SELECT a.employee.id, a.id, a.startDate, a.endDate, b.id, b.startDate, b.endDate " +
+           "FROM Leave a, Leave b WHERE a.employee.id = :employeeId AND b.employee.id = a.employee.id AND b.id > a.id " +
+           "AND b.startDate <= a.endDate AND b.endDate >= a.startDate " +
+           "AND a.status IN :statuses AND b.status IN :statuses ORDER BY a.id, b.id")
+    List<Object[]> findOverlappingPairsByEmployeeId(@Param("employeeId") Long employeeId,
+                                                    @Param("statuses") List<LeaveStatus> statuses,
+                                                    Pageable pageable);
+
+    @Query("SELECT DISTINCT l FROM Leave l JOIN FETCH l.employee LEFT JOIN FETCH l.approvedBy LEFT JOIN FETCH l.dayDetails " +
+           "WHERE l.employee.id IN :employeeIds")
+    List<Leave> findByEmployeeIdInWithDetails(@Param("employeeIds") List<Long> employeeIds);
 }
 
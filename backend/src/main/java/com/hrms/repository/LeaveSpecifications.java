@@ -0,0 +1,54 @@
+package com.hrms.repository;
+
+import com.hrms.model.Leave;
+import com.hrms.model.LeaveStatus;
+import com.hrms.model.LeaveType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Filter building blocks for the paginated leave listing. A null argument means "no filter".
+ */
+public final class LeaveSpecifications {
+
+    private LeaveSpecifications() {}
+
+    public static Specification<Leave> hasEmployee(Long employeeId) {
+        return (root, query, cb) -> employeeId == null ? null
+                : cb.equal(root.get("employee").get("id"), employeeId);
+    }
+
+    public static Specification<Leave> hasDepartment(Long departmentId) {
+        return (root, query, cb) -> departmentId == null ? null
+                : cb.equal(root.get("employee").get("department").get("id"), departmentId);
+    }
+
+    public static Specification<Leave> hasStatus(LeaveStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Leave> hasType(LeaveType type) {
+        return (root, query, cb) -> type == null ? null : cb.equal(root.get("leaveType"), type);
+    }
+
+    // Leaves overlapping [from, to]
+    public static Specification<Leave> overlaps(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) return null;
+            if (from == null) return cb.lessThanOrEqualTo(root.get("startDate"), to);
+            if (to == null) return cb.greaterThanOrEqualTo(root.get("endDate"), from);
+            return cb.and(cb.lessThanOrEqualTo(root.get("startDate"), to),
+                    cb.greaterThanOrEqualTo(root.get("endDate"), from));
+        };
+    }
+
+    // Keyset predicate for ORDER BY submittedAt DESC, id DESC
+    public static Specification<Leave> before(LocalDateTime submittedAt, Long id) {
+        return (root, query, cb) -> submittedAt == null ? null
+                : cb.or(cb.lessThan(root.get("submittedAt"), submittedAt),
+                        cb.and(cb.equal(root.get("submittedAt"), submittedAt),
+                                cb.lessThan(root.get("id"), id)));
+    }
+}
@@ -3,8 +3,11 @@ package com.hrms.repository;
 import com.hrms.model.Notification;
 import com.hrms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +15,7 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
     long countByUserAndIsReadFalse(User user);
     boolean existsByUserAndTitleAndMessageAndTypeAndIsReadFalse(User user, String title, String message, String type);
+
+    @Query("SELECT n FROM Notification n WHERE n.user.id IN :userIds AND n.type = :type AND n.isRead = false")
+    List<Notification> findUnreadByUserIdsAndType(@Param("userIds") Collection<Long> userIds, @Param("type") String type);
 }
@@ -1,9 +1,10 @@
 package com.hrms.repository;
 
+import com.hrms.dto.TimesheetDTO;
 import com.hrms.model.Timesheet;
 import com.hrms.model.TimesheetStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +12,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Repository
-public interface TimesheetRepository extends JpaRepository<Timesheet, Long> {
+public interface TimesheetRepository extends JpaRepository<Timesheet, Long>, JpaSpecificationExecutor<Timesheet> {
         List<Timesheet> findByEmployeeId(Long employeeId);
 
         List<Timesheet> findByStatus(TimesheetStatus status);
@@ -20,26 +21,17 @@ public interface TimesheetRepository extends JpaRepository<Timesheet, Long> {
 
         List<Timesheet> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
-        @Query("SELECT t FROM Timesheet t WHERE " +
-                        "(:employeeId IS NULL OR t.employee.id = :employeeId) AND " +
-                        "(:fromDate IS NULL OR t.date >= :fromDate) AND " +
-                        "(:toDate IS NULL OR t.date <= :toDate) AND " +
-                        "(:status IS NULL OR t.status = :status)")
-        List<Timesheet> findWithFilters(@Param("employeeId") Long employeeId,
-                        @Param("fromDate") LocalDate fromDate,
-                        @Param("toDate") LocalDate toDate,
-                        @Param("status") TimesheetStatus status);
-
         @Query("SELECT t FROM Timesheet t WHERE t.employee.id = :employeeId AND t.date = :date AND t.status = 'APPROVED'")
         List<Timesheet> findApprovedByEmployeeAndDate(@Param("employeeId") Long employeeId,
                         @Param("date") LocalDate date);
 
-        @Query("SELECT t FROM Timesheet t JOIN EmployeeReporting er ON t.employee.id = er.employee.id WHERE er.reportingManager.id = :managerId")
-        List<Timesheet> findByManagerId(@Param("managerId") Long managerId);
+        // Team timesheets read straight into DTOs, with the employee name, in one query
+        @Query("SELECT new com.hrms.dto.TimesheetDTO(t.id, e.id, e.firstName, e.lastName, t.date, t.startTime, t.endTime, " +
+                        "t.totalHours, t.project, t.task, t.notes, t.status, t.managerComments, t.onsiteOffshore, " +
+                        "t.billingLocation, t.billable, t.projectName, t.taskDescription, t.category, t.leaveType) " +
+                        "FROM Timesheet t JOIN t.employee e JOIN EmployeeReporting er ON er.employee.id = e.id " +
+                        "WHERE er.reportingManager.id = :managerId ORDER BY t.date DESC, t.id DESC")
+        List<TimesheetDTO> findDTOsByManagerId(@Param("managerId") Long managerId);
 
         List<Timesheet> findByReviewedBy(com.hrms.model.User reviewedBy);
-
-        @Modifying(flushAutomatically = true, clearAutomatically = true)
-        @Query("DELETE FROM Timesheet t WHERE t.employee.id = :employeeId AND t.date BETWEEN :startDate AND :endDate")
-        void deleteByEmployeeIdAndDateBetween(@Param("employeeId") Long employeeId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
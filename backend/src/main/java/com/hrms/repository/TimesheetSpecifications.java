@@ -0,0 +1,43 @@
+package com.hrms.repository;
+
+import com.hrms.model.Timesheet;
+import com.hrms.model.TimesheetStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filter building blocks for timesheet listings. A null argument means "no filter", so only the
+ * predicates actually supplied reach the SQL.
+ */
+public final class TimesheetSpecifications {
+
+    private TimesheetSpecifications() {}
+
+    public static Specification<Timesheet> hasEmployee(Long employeeId) {
+        return (root, query, cb) -> employeeId == null ? null
+                : cb.equal(root.get("employee").get("id"), employeeId);
+    }
+
+    public static Specification<Timesheet> hasStatus(TimesheetStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Timesheet> onOrAfter(LocalDate from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    public static Specification<Timesheet> onOrBefore(LocalDate to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThanOrEqualTo(root.get("date"), to);
+    }
+
+    // Keyset predicate for ORDER BY date DESC NULLS FIRST, id DESC; a null date is a cursor inside the undated rows
+    public static Specification<Timesheet> before(LocalDate date, Long id) {
+        return (root, query, cb) -> date == null
+                ? cb.or(cb.isNotNull(root.get("date")),
+                        cb.lessThan(root.get("id"), id))
+                : cb.or(cb.lessThan(root.get("date"), date),
+                        cb.and(cb.equal(root.get("date"), date),
+                                cb.lessThan(root.get("id"), id)));
+    }
+}
@@ -1,14 +1,30 @@
 package com.hrms.scheduler;
 
-import com.hrms.model.LeaveBalance;
 import com.hrms.repository.LeaveBalanceRepository;
 import com.hrms.service.LeaveBalanceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Nightly accrual refresh. "chunked" mode walks the balances in id chunks, each refreshed in its own
+ * transaction on a small worker pool; "sql" mode does the whole table in one set-based statement.
+ * Every run starts with the year-end reset, so the reset and the refresh's own rollover never overlap.
+ */
 @Component
 public class LeaveBalanceScheduler {
 
@@ -18,19 +34,134 @@ public class LeaveBalanceScheduler {
     @Autowired
     private LeaveBalanceService leaveBalanceService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hrms.leave.balance-refresh.mode:chunked}")
+    private String mode;
+
+    @Value("${hrms.leave.balance-refresh.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${hrms.leave.balance-refresh.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Progress of the current (or last) run
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger updated = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile String lastMode;
+    private volatile LocalDateTime lastStartedAt;
+    private volatile long lastDurationMillis;
+
     // Run every day at midnight
     @Scheduled(cron = "0 0 0 * * *")
     public void refreshAllLeaveBalances() {
-        List<LeaveBalance> allBalances = leaveBalanceRepository.findAll();
-        for (LeaveBalance balance : allBalances) {
-            try {
-                leaveBalanceService.refreshLeaveBalance(balance);
-            } catch (Exception e) {
-                // Log error for specific employee but continue with others
-                System.err.println("Failed to refresh leave balance for employee ID: " + 
-                    (balance.getEmployee() != null ? balance.getEmployee().getId() : "unknown") + 
-                    ". Error: " + e.getMessage());
+        if (!running.compareAndSet(false, true)) {
+            System.out.println("[LeaveBalanceScheduler] Previous run still in progress, skipping");
+            return;
+        }
+        long start = System.nanoTime();
+        lastStartedAt = LocalDateTime.now();
+        lastMode = mode;
+        total.set(0);
+        processed.set(0);
+        updated.set(0);
+        failed.set(0);
+        try {
+            yearEndReset();
+            if ("sql".equalsIgnoreCase(mode)) {
+                refreshSetBased();
+            } else {
+                refreshChunked();
             }
+        } finally {
+            lastDurationMillis = (System.nanoTime() - start) / 1_000_000;
+            running.set(false);
+            System.out.println("[LeaveBalanceScheduler] " + lastMode + " refresh finished in " + lastDurationMillis
+                    + " ms: " + updated.get() + " updated, " + failed.get() + " failed");
         }
     }
+
+    private void refreshSetBased() {
+        Integer count = transactionTemplate.execute(status -> {
+            int changed = leaveBalanceRepository.refreshAllSetBased(LocalDate.now());
+            leaveBalanceService.evictAllBalanceViews();
+            return changed;
+        });
+        updated.set(count != null ? count : 0);
+        total.set(updated.get());
+        processed.set(updated.get());
+    }
+
+    private void refreshChunked() {
+        List<Long> ids = leaveBalanceRepository.findAllIds();
+        total.set(ids.size());
+        LocalDate today = LocalDate.now();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "leave-balance-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                futures.add(pool.submit(() -> refreshChunk(chunk, today)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            System.err.println("[LeaveBalanceScheduler] Refresh interrupted: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void refreshChunk(List<Long> chunk, LocalDate today) {
+        try {
+            updated.addAndGet(leaveBalanceService.refreshChunk(chunk, today));
+        } catch (Exception e) {
+            // Usually an optimistic-lock clash with a concurrent deduction; retry the chunk row by row
+            System.err.println("[LeaveBalanceScheduler] Chunk failed (" + e.getMessage() + "), retrying individually");
+            for (Long id : chunk) {
+                try {
+                    updated.addAndGet(leaveBalanceService.refreshChunk(List.of(id), today));
+                } catch (Exception rowError) {
+                    failed.incrementAndGet();
+                    System.err.println("Failed to refresh leave balance id " + id + ". Error: " + rowError.getMessage());
+                }
+            }
+        }
+        processed.addAndGet(chunk.size());
+    }
+
+    // Explicit reset so January reports do not depend on each balance being touched first; a no-op once done
+    private void yearEndReset() {
+        try {
+            leaveBalanceService.runYearEndReset(LocalDate.now().getYear());
+        } catch (Exception e) {
+            System.err.println("[LeaveBalanceScheduler] Year-end reset failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", running.get());
+        result.put("mode", lastMode != null ? lastMode : mode);
+        result.put("chunkSize", chunkSize);
+        result.put("parallelism", parallelism);
+        result.put("lastStartedAt", lastStartedAt);
+        result.put("lastDurationMillis", lastDurationMillis);
+        result.put("total", total.get());
+        result.put("processed", processed.get());
+        result.put("updated", updated.get());
+        result.put("failed", failed.get());
+        return result;
+    }
 }
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,8 +16,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.hrms.model.Role;
+import com.hrms.model.User;
+import com.hrms.model.UserPrincipal;
 import com.hrms.service.MyUserDetailsService;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -24,20 +30,35 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private MyUserDetailsService userDetailsService;
 
+  @Autowired
+  private TokenVersionRegistry tokenVersionRegistry;
+
+  // When enabled, the principal is rebuilt from verified claims instead of loading the user row
+  @Value("${hrms.security.stateless-principal:true}")
+  private boolean statelessPrincipal;
+
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      Claims claims = jwt != null ? jwtUtils.parseVerifiedClaims(jwt) : null;
+      if (claims != null) {
+        UserDetails userDetails;
+        if (statelessPrincipal && claims.get(JwtUtils.CLAIM_ROLE) != null) {
+          userDetails = principalFromClaims(claims);
+        } else {
+          // Tokens issued before claims were embedded still go through the user lookup
+          userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
-            userDetails.getAuthorities());
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        if (userDetails != null) {
+          UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
+              userDetails.getAuthorities());
+          authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
+          SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
       }
     } catch (Exception e) {
       logger.error("Cannot set user authentication: {}", e);
@@ -46,6 +67,22 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  private UserPrincipal principalFromClaims(Claims claims) {
+    Long userId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
+    Integer version = claims.get(JwtUtils.CLAIM_TOKEN_VERSION, Integer.class);
+    if (!tokenVersionRegistry.isCurrent(userId, version)) {
+      logger.warn("Rejecting stale JWT for user " + claims.getSubject());
+      return null;
+    }
+
+    User user = new User();
+    user.setId(userId);
+    user.setUsername(claims.getSubject());
+    user.setRole(Role.valueOf(claims.get(JwtUtils.CLAIM_ROLE, String.class)));
+    user.setActive(true);
+    return new UserPrincipal(user, claims.get(JwtUtils.CLAIM_EMPLOYEE_ID, Long.class));
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,129 @@
+package com.hrms.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default OtpStore. Codes live only in memory, so issuing or checking one costs no database write;
+ * a restart simply invalidates outstanding codes.
+ */
+@Component
+@ConditionalOnProperty(name = "hrms.security.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    @Value("${hrms.security.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Failed attempts are counted per failure window, not per code, so re-issuing a code
+    // does not hand out a fresh set of guesses. The window starts with the first code issued
+    // and the entry outlives an expired code until the window closes.
+    private static final class Entry {
+        final byte[] otp;
+        final long expiresAt;
+        long failuresResetAt;
+        int failedAttempts;
+
+        Entry(byte[] otp, long expiresAt, long failuresResetAt, int failedAttempts) {
+            this.otp = otp;
+            this.expiresAt = expiresAt;
+            this.failuresResetAt = failuresResetAt;
+            this.failedAttempts = failedAttempts;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        boolean isStale(long now) {
+            return now >= expiresAt && now >= failuresResetAt;
+        }
+    }
+
+    @Override
+    public void put(String key, String otp, Duration ttl) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        byte[] code = otp.getBytes(StandardCharsets.UTF_8);
+        entries.compute(normalize(key), (k, previous) -> {
+            if (previous != null && now < previous.failuresResetAt) {
+                return new Entry(code, expiresAt, previous.failuresResetAt, previous.failedAttempts);
+            }
+            return new Entry(code, expiresAt, expiresAt, 0);
+        });
+    }
+
+    @Override
+    public Result verify(String key, String otp) {
+        String normalized = normalize(key);
+        Result[] result = new Result[1];
+        // compute() serialises concurrent attempts for the same key
+        entries.compute(normalized, (k, entry) -> {
+            long now = System.currentTimeMillis();
+            if (entry == null || entry.isStale(now)) {
+                result[0] = Result.EXPIRED;
+                return null;
+            }
+            if (now >= entry.failuresResetAt) {
+                // The failure window closed while this code is still live; give it a window of its own
+                entry.failedAttempts = 0;
+                entry.failuresResetAt = entry.expiresAt;
+            }
+            if (entry.failedAttempts >= maxAttempts) {
+                result[0] = Result.TOO_MANY_ATTEMPTS;
+                return entry;
+            }
+            if (entry.isExpired(now)) {
+                result[0] = Result.EXPIRED;
+                return entry;
+            }
+            byte[] candidate = otp != null ? otp.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            if (MessageDigest.isEqual(entry.otp, candidate)) {
+                result[0] = Result.VALID;
+                return null;
+            }
+            entry.failedAttempts++;
+            result[0] = entry.failedAttempts >= maxAttempts ? Result.TOO_MANY_ATTEMPTS : Result.INVALID;
+            return entry;
+        });
+        return result[0];
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(normalize(key));
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getValue().isStale(now) && entries.remove(e.getKey(), e.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${hrms.security.otp.sweep-interval-ms:60000}")
+    public void sweep() {
+        int removed = purgeExpired();
+        if (removed > 0) {
+            System.out.println("[InMemoryOtpStore] Purged " + removed + " expired OTPs");
+        }
+    }
+
+    private String normalize(String key) {
+        return key == null ? "" : key.trim().toLowerCase();
+    }
+}
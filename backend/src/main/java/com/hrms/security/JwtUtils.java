@@ -2,7 +2,9 @@ package com.hrms.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import io.jsonwebtoken.security.SecurityException;
+import com.hrms.model.User;
+import com.hrms.model.UserPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,34 +15,62 @@ import java.util.Date;
 @Component
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_EMPLOYEE_ID = "eid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     // A secure 256-bit key for HMAC-SHA
     private final String jwtSecret = "secret-key-1234567890-must-be-very-long-and-secure-enough";
     private final int jwtExpirationMs = 86400000; // 24 hours
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Built once at startup; both are immutable and thread-safe, so every request shares them
+    private final Key key;
+    private final JwtParser jwtParser;
+
+    public JwtUtils() {
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken(authentication, null);
+    }
+
+    /**
+     * Issues a token that also carries userId, role, employeeId and token version,
+     * so AuthTokenFilter can rebuild the principal without a database lookup.
+     */
+    public String generateJwtToken(Authentication authentication, Long employeeId) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
-    }
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        if (userPrincipal instanceof UserPrincipal principal && principal.getUser().getRole() != null) {
+            User user = principal.getUser();
+            builder.claim(CLAIM_USER_ID, user.getId())
+                    .claim(CLAIM_ROLE, user.getRole().name())
+                    .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+            if (employeeId != null) {
+                builder.claim(CLAIM_EMPLOYEE_ID, employeeId);
+            }
+        }
+
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Parses and verifies the token in a single pass.
+     * Returns the verified claims, or null if the token is invalid or expired.
+     */
+    public Claims parseVerifiedClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
+        } catch (SecurityException e) {
+            System.err.println("Invalid JWT signature: " + e.getMessage());
         } catch (MalformedJwtException e) {
             System.err.println("Invalid JWT token: " + e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -50,6 +80,14 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             System.err.println("JWT claims string is empty: " + e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseVerifiedClaims(authToken) != null;
     }
 }
@@ -0,0 +1,117 @@
+package com.hrms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sliding-window limiter for login attempts, keyed by username and by client IP.
+ * Checked before any password hashing so a burst of attempts costs no BCrypt work.
+ * Password-reset OTP requests are limited the same way, keyed by email and by client IP.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    @Value("${hrms.security.login.max-attempts-per-user:5}")
+    private int maxAttemptsPerUser;
+
+    @Value("${hrms.security.login.max-attempts-per-ip:20}")
+    private int maxAttemptsPerIp;
+
+    @Value("${hrms.security.login.window-seconds:60}")
+    private long windowSeconds;
+
+    @Value("${hrms.security.otp.max-issues-per-email:3}")
+    private int maxOtpIssuesPerEmail;
+
+    @Value("${hrms.security.otp.max-issues-per-ip:10}")
+    private int maxOtpIssuesPerIp;
+
+    @Value("${hrms.security.otp.issue-window-seconds:900}")
+    private long otpIssueWindowSeconds;
+
+    // Idle keys expire after one window, which keeps memory bounded during credential-stuffing runs
+    private Cache<String, Deque<Long>> userWindows;
+    private Cache<String, Deque<Long>> ipWindows;
+    private Cache<String, Deque<Long>> otpEmailWindows;
+    private Cache<String, Deque<Long>> otpIpWindows;
+
+    private final AtomicLong rejectedAttempts = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        userWindows = newWindowCache(windowSeconds);
+        ipWindows = newWindowCache(windowSeconds);
+        otpEmailWindows = newWindowCache(otpIssueWindowSeconds);
+        otpIpWindows = newWindowCache(otpIssueWindowSeconds);
+    }
+
+    private Cache<String, Deque<Long>> newWindowCache(long seconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofSeconds(seconds))
+                .build();
+    }
+
+    /**
+     * Records an attempt and returns false if either the username or the IP is over its limit.
+     */
+    public boolean tryAcquire(String username, String ip) {
+        long now = System.currentTimeMillis();
+        boolean userAllowed = username == null
+                || record(userWindows, username.toLowerCase(), now, windowSeconds, maxAttemptsPerUser);
+        boolean ipAllowed = ip == null || record(ipWindows, ip, now, windowSeconds, maxAttemptsPerIp);
+        if (!userAllowed || !ipAllowed) {
+            rejectedAttempts.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a password-reset OTP request and returns false if either the email or the IP is over its limit.
+     */
+    public boolean tryAcquireOtpIssue(String email, String ip) {
+        long now = System.currentTimeMillis();
+        boolean emailAllowed = email == null
+                || record(otpEmailWindows, email.trim().toLowerCase(), now, otpIssueWindowSeconds, maxOtpIssuesPerEmail);
+        boolean ipAllowed = ip == null || record(otpIpWindows, ip, now, otpIssueWindowSeconds, maxOtpIssuesPerIp);
+        if (!emailAllowed || !ipAllowed) {
+            rejectedAttempts.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void resetUser(String username) {
+        if (username != null) {
+            userWindows.invalidate(username.toLowerCase());
+        }
+    }
+
+    private boolean record(Cache<String, Deque<Long>> windows, String key, long now, long seconds, int limit) {
+        Deque<Long> window = windows.get(key, k -> new ArrayDeque<>());
+        long cutoff = now - seconds * 1000;
+        synchronized (window) {
+            while (!window.isEmpty() && window.peekFirst() <= cutoff) {
+                window.pollFirst();
+            }
+            if (window.size() >= limit) {
+                return false;
+            }
+            window.addLast(now);
+            return true;
+        }
+    }
+
+    public long getRejectedAttempts() {
+        return rejectedAttempts.get();
+    }
+}
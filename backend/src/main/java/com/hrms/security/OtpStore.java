@@ -0,0 +1,23 @@
+package com.hrms.security;
+
+import java.time.Duration;
+
+/**
+ * Holds one-time passwords for the forgot/reset password flow.
+ * Implementations must compare codes in constant time and count failed attempts.
+ */
+public interface OtpStore {
+
+    enum Result { VALID, INVALID, EXPIRED, TOO_MANY_ATTEMPTS }
+
+    /** Stores a new code for the key, replacing any previous one but keeping its failed-attempt count. */
+    void put(String key, String otp, Duration ttl);
+
+    /** Checks the code; a VALID result consumes it. */
+    Result verify(String key, String otp);
+
+    void remove(String key);
+
+    /** Drops expired entries and returns how many were removed. */
+    int purgeExpired();
+}
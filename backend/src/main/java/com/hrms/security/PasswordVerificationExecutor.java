@@ -0,0 +1,98 @@
+package com.hrms.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool that runs BCrypt password checks off the Tomcat request threads.
+ * When the queue is full new logins are rejected instead of piling up behind each other.
+ */
+@Component
+public class PasswordVerificationExecutor {
+
+    @Value("${hrms.security.login.pool-size:4}")
+    private int poolSize;
+
+    @Value("${hrms.security.login.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-verify-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> {
+                    rejectedTasks.incrementAndGet();
+                    throw new RejectedExecutionException("Password verification queue is full");
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the verification on the pool. The returned future fails with RejectedExecutionException
+     * when the pool is saturated.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> verification) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                recordQueueTime(System.nanoTime() - enqueuedAt);
+                try {
+                    return verification.get();
+                } finally {
+                    completedTasks.incrementAndGet();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void recordQueueTime(long nanos) {
+        totalQueueNanos.addAndGet(nanos);
+        maxQueueNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public Map<String, Object> getStats() {
+        long completed = completedTasks.get();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("poolSize", poolSize);
+        result.put("queueCapacity", queueCapacity);
+        result.put("activeThreads", executor.getActiveCount());
+        result.put("queued", executor.getQueue().size());
+        result.put("completed", completed);
+        result.put("rejected", rejectedTasks.get());
+        result.put("avgQueueMillis", completed == 0 ? 0.0 : totalQueueNanos.get() / 1_000_000.0 / completed);
+        result.put("maxQueueMillis", maxQueueNanos.get() / 1_000_000.0);
+        return result;
+    }
+}
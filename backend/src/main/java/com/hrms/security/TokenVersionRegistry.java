@@ -0,0 +1,102 @@
+package com.hrms.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hrms.model.User;
+import com.hrms.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Short-lived view of each user's current token version.
+ * Lets AuthTokenFilter trust role claims from a JWT without a users table lookup on every request,
+ * while still rejecting tokens issued before a role change or for deleted users.
+ * Entries expire after the configured TTL and are reloaded from the users table, so a revocation
+ * made on another node is seen within that TTL, and users created after startup are looked up on first use.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Cached for users that no longer exist, so their leftover tokens do not query the table on every request
+    private static final int UNKNOWN_USER = -1;
+
+    @Value("${hrms.security.token-version.max-size:10000}")
+    private long maxSize;
+
+    @Value("${hrms.security.token-version.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<Long, Integer> versions;
+
+    @PostConstruct
+    public void load() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        for (Object[] row : userRepository.findAllTokenVersions()) {
+            Long userId = (Long) row[0];
+            Integer version = (Integer) row[1];
+            versions.put(userId, version != null ? version : 0);
+        }
+        System.out.println("[TokenVersionRegistry] Loaded token versions for " + versions.estimatedSize() + " users");
+    }
+
+    public boolean isCurrent(Long userId, Integer tokenVersion) {
+        if (userId == null) return false;
+        int presented = tokenVersion != null ? tokenVersion : 0;
+        int current = versions.get(userId, this::lookup);
+        if (current != UNKNOWN_USER && current < presented) {
+            // Issued by another node after a revoke this node has not seen yet
+            current = lookup(userId);
+            versions.put(userId, current);
+        }
+        return current == presented;
+    }
+
+    private int lookup(Long userId) {
+        return userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+    }
+
+    // Called when a token is issued so the new version is known without a lookup.
+    // A login that read the user before a concurrent revoke must not roll the version back.
+    public void register(User user) {
+        versions.asMap().merge(user.getId(), user.getTokenVersion(), Math::max);
+    }
+
+    // Bumps the version on the entity; the caller is responsible for saving it.
+    // Inside a transaction the in-memory version only moves once the bump has committed.
+    public void revoke(User user) {
+        int next = user.getTokenVersion() + 1;
+        user.setTokenVersion(next);
+        Long userId = user.getId();
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.asMap().merge(userId, next, Math::max);
+                }
+            });
+        } else {
+            versions.asMap().merge(userId, next, Math::max);
+        }
+    }
+
+    public void forget(Long userId) {
+        if (userId != null) {
+            versions.put(userId, UNKNOWN_USER);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hrms.service;
+
+import com.hrms.model.EmailDigestItem;
+import com.hrms.model.EmailDigestPreference;
+import com.hrms.model.User;
+import com.hrms.repository.CompanyDetailRepository;
+import com.hrms.repository.EmailDigestItemRepository;
+import com.hrms.repository.EmailDigestPreferenceRepository;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes submission emails (leave requests, timesheets) either straight to the outbox or into
+ * per-recipient digests, depending on each address's EmailDigestPreference.
+ */
+@Service
+@Transactional
+public class EmailDigestService {
+
+    public static final int MAX_INTERVAL_MINUTES = 24 * 60;
+
+    @Autowired
+    private EmailDigestPreferenceRepository preferenceRepository;
+
+    @Autowired
+    private EmailDigestItemRepository itemRepository;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompanyDetailRepository companyDetailRepository;
+
+    /**
+     * Sends {@code title}/{@code fullBody} immediately to recipients without a digest preference and
+     * queues {@code details} for the rest. With {@code digestOnly}, immediate recipients are skipped
+     * (used for submissions that were previously in-app only).
+     */
+    public void route(String[] to, String[] cc, String title, String fullBody, String details, boolean digestOnly) {
+        Map<String, Integer> intervals = intervalsFor(to, cc);
+
+        List<String> immediateTo = new ArrayList<>();
+        List<String> immediateCc = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> digested = new LinkedHashSet<>();
+        split(to, intervals, immediateTo, digested);
+        split(cc, intervals, immediateCc, digested);
+
+        for (String recipient : digested) {
+            itemRepository.save(EmailDigestItem.builder()
+                    .recipient(recipient)
+                    .title(title)
+                    .details(details)
+                    .createdAt(now)
+                    .build());
+        }
+
+        if (digestOnly) {
+            return;
+        }
+        if (immediateTo.isEmpty() && !immediateCc.isEmpty()) {
+            immediateTo.addAll(immediateCc);
+            immediateCc.clear();
+        }
+        if (!immediateTo.isEmpty()) {
+            emailOutboxService.enqueue(immediateTo.toArray(String[]::new), immediateCc.toArray(String[]::new), title, fullBody);
+        }
+    }
+
+    private void split(String[] addresses, Map<String, Integer> intervals, List<String> immediate, Set<String> digested) {
+        if (addresses == null) return;
+        for (String address : addresses) {
+            if (address == null || address.isBlank()) continue;
+            if (intervals.getOrDefault(address.toLowerCase(), 0) > 0) {
+                digested.add(address.toLowerCase());
+            } else {
+                immediate.add(address);
+            }
+        }
+    }
+
+    private Map<String, Integer> intervalsFor(String[] to, String[] cc) {
+        Set<String> all = new LinkedHashSet<>();
+        for (String[] group : new String[][] { to, cc }) {
+            if (group == null) continue;
+            for (String address : group) {
+                if (address != null) all.add(address.toLowerCase());
+            }
+        }
+        Map<String, Integer> intervals = new HashMap<>();
+        if (!all.isEmpty()) {
+            for (EmailDigestPreference pref : preferenceRepository.findByEmailIn(all)) {
+                intervals.put(pref.getEmail(), pref.getIntervalMinutes());
+            }
+        }
+        return intervals;
+    }
+
+    /**
+     * Sends one combined email to every recipient whose oldest pending item has waited out their
+     * digest interval. Items are claimed with SKIP LOCKED, so instances polling at the same time
+     * never send the same items twice.
+     */
+    @Scheduled(fixedDelayString = "${hrms.mail.digest.poll-interval-ms:60000}")
+    public void flushDue() {
+        List<Object[]> pending = itemRepository.findPendingRecipients();
+        if (pending.isEmpty()) return;
+
+        Map<String, LocalDateTime> oldestByRecipient = new HashMap<>();
+        for (Object[] row : pending) {
+            oldestByRecipient.put((String) row[0], (LocalDateTime) row[1]);
+        }
+        Map<String, EmailDigestPreference> prefs = new HashMap<>();
+        for (EmailDigestPreference pref : preferenceRepository.findByEmailIn(oldestByRecipient.keySet())) {
+            prefs.put(pref.getEmail(), pref);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (Map.Entry<String, LocalDateTime> entry : oldestByRecipient.entrySet()) {
+            String recipient = entry.getKey();
+            EmailDigestPreference pref = prefs.get(recipient);
+            // Preference removed or switched to immediate since the items were queued: flush right away
+            boolean due = pref == null || pref.getIntervalMinutes() <= 0
+                    || !entry.getValue().plusMinutes(pref.getIntervalMinutes()).isAfter(now);
+            if (!due) continue;
+
+            List<EmailDigestItem> items = itemRepository.claimByRecipient(recipient);
+            // Empty when another instance holds them
+            if (items.isEmpty()) continue;
+            emailOutboxService.enqueue(new String[] { recipient }, null,
+                    "HRMS Digest: " + items.size() + " submission(s) awaiting review", renderDigest(items));
+            itemRepository.deleteAllInBatch(items);
+            if (pref != null) {
+                pref.setLastSentAt(now);
+            }
+            sent++;
+        }
+        if (sent > 0) {
+            System.out.println("[EmailDigest] Queued " + sent + " digest emails");
+        }
+    }
+
+    private String renderDigest(List<EmailDigestItem> items) {
+        StringBuilder body = new StringBuilder();
+        body.append("Hello,\n\n");
+        body.append("The following submissions are awaiting your review:\n\n");
+        for (EmailDigestItem item : items) {
+            body.append("==========================\n");
+            body.append(item.getTitle()).append("\n");
+            body.append("==========================\n");
+            body.append(item.getDetails()).append("\n");
+        }
+        body.append("Please log in to the HRMS portal to take necessary action.\n\n");
+        body.append("Best regards,\n");
+        body.append("HRMS Notification System");
+        return body.toString();
+    }
+
+    /**
+     * Applies the digest interval to every address the user receives submission emails on.
+     * 0 switches back to immediate emails.
+     */
+    public Map<String, Object> setPreferenceForUser(Long userId, int intervalMinutes) {
+        if (intervalMinutes < 0 || intervalMinutes > MAX_INTERVAL_MINUTES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "intervalMinutes must be between 0 and " + MAX_INTERVAL_MINUTES);
+        }
+        Set<String> addresses = addressesOf(userId);
+        for (String address : addresses) {
+            EmailDigestPreference pref = preferenceRepository.findByEmail(address)
+                    .orElseGet(() -> EmailDigestPreference.builder().email(address).build());
+            pref.setIntervalMinutes(intervalMinutes);
+            preferenceRepository.save(pref);
+        }
+        return Map.of("intervalMinutes", intervalMinutes, "emails", addresses);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPreferenceForUser(Long userId) {
+        Set<String> addresses = addressesOf(userId);
+        int interval = preferenceRepository.findByEmailIn(addresses).stream()
+                .mapToInt(EmailDigestPreference::getIntervalMinutes)
+                .max().orElse(0);
+        return Map.of("intervalMinutes", interval, "emails", addresses);
+    }
+
+    private Set<String> addressesOf(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        Set<String> addresses = new LinkedHashSet<>();
+        if (user.getEmail() != null) addresses.add(user.getEmail().toLowerCase());
+        employeeRepository.findByUser_Id(userId)
+                .flatMap(emp -> companyDetailRepository.findByEmployee_Id(emp.getId()))
+                .map(cd -> cd.getOryfolksMailId())
+                .filter(mail -> mail != null && !mail.isBlank())
+                .ifPresent(mail -> addresses.add(mail.toLowerCase()));
+        return addresses;
+    }
+}
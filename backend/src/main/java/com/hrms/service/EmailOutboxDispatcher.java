@@ -0,0 +1,56 @@
+package com.hrms.service;
+
+import com.hrms.model.EmailOutbox;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Background delivery of the email outbox. Each poll claims a batch, sends it outside any
+ * transaction and records the outcome per message.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${hrms.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${hrms.mail.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${hrms.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<EmailOutbox> batch;
+        try {
+            batch = emailOutboxService.claimDue(batchSize);
+        } catch (Exception e) {
+            System.err.println("[EmailOutbox] Failed to claim messages: " + e.getMessage());
+            return;
+        }
+        for (EmailOutbox message : batch) {
+            try {
+                emailService.deliver(message);
+                emailOutboxService.markSent(message.getId());
+            } catch (Exception e) {
+                System.err.println("[EmailOutbox] Delivery of message " + message.getId() + " failed: " + e.getMessage());
+                emailOutboxService.markFailed(message.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Delivered messages are only kept for troubleshooting; DEAD rows stay until handled
+    @Scheduled(cron = "0 30 2 * * *")
+    public void purgeSent() {
+        int removed = emailOutboxService.purgeSent(retentionDays);
+        System.out.println("[EmailOutbox] Purged " + removed + " sent messages older than " + retentionDays + " days");
+    }
+}
@@ -0,0 +1,117 @@
+package com.hrms.service;
+
+import com.hrms.model.EmailOutbox;
+import com.hrms.model.OutboxStatus;
+import com.hrms.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistence side of the email outbox: enqueueing, claiming due rows and recording outcomes.
+ */
+@Service
+@Transactional
+public class EmailOutboxService {
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${hrms.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${hrms.mail.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${hrms.mail.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${hrms.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /**
+     * Joins the caller's transaction, so the email is only sent if the triggering change commits.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public EmailOutbox enqueue(String[] to, String[] cc, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox message = EmailOutbox.builder()
+                .toRecipients(String.join(",", to))
+                .ccRecipients(cc != null && cc.length > 0 ? String.join(",", cc) : null)
+                .subject(subject)
+                .body(body)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+        return emailOutboxRepository.save(message);
+    }
+
+    /**
+     * Locks up to {@code limit} due messages and marks them SENDING under a lease.
+     * Commits before any SMTP work starts, so no connection is held during delivery.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<EmailOutbox> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = emailOutboxRepository.lockDue(now, limit);
+        for (EmailOutbox message : due) {
+            message.setStatus(OutboxStatus.SENDING);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return due;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markSent(Long id) {
+        emailOutboxRepository.findById(id).ifPresent(message -> {
+            message.setStatus(OutboxStatus.SENT);
+            message.setSentAt(LocalDateTime.now());
+            message.setLastError(null);
+        });
+    }
+
+    /**
+     * Schedules a retry with exponential backoff, or dead-letters the message once attempts run out.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markFailed(Long id, String error) {
+        emailOutboxRepository.findById(id).ifPresent(message -> {
+            message.setLastError(error);
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus(OutboxStatus.DEAD);
+                System.err.println("[EmailOutbox] Message " + id + " dead-lettered after " + message.getAttempts() + " attempts: " + error);
+                return;
+            }
+            long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(message.getAttempts() - 1, 20));
+            message.setStatus(OutboxStatus.PENDING);
+            message.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+        });
+    }
+
+    public int purgeSent(int retentionDays) {
+        return emailOutboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (OutboxStatus status : OutboxStatus.values()) {
+            result.put(status.name().toLowerCase(), 0L);
+        }
+        for (Object[] row : emailOutboxRepository.countByStatus()) {
+            result.put(((OutboxStatus) row[0]).name().toLowerCase(), row[1]);
+        }
+        result.put("maxAttempts", maxAttempts);
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hrms.service;
 
+import com.hrms.model.EmailOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -15,27 +16,51 @@ public class EmailService {
     @Value("${spring.mail.username}")
     private String fromEmail;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailDigestService emailDigestService;
+
+    /**
+     * Queues the email in the outbox; EmailOutboxDispatcher sends it once the current transaction commits.
+     */
     public void sendEmail(String[] to, String[] cc, String subject, String body) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            if (fromEmail != null) {
-                message.setFrom(fromEmail);
-            }
-            if (to != null && to.length > 0) {
-                message.setTo((String[]) to);
-            }
-            if (cc != null && cc.length > 0) {
-                message.setCc(cc);
-            }
-            message.setSubject(subject);
-            message.setText(body);
-            mailSender.send(message);
-            System.out.println("Email sent successfully to: " + String.join(", ", to));
-        } catch (Exception e) {
-            System.err.println("Failed to send email: " + e.getMessage());
+        if (to == null || to.length == 0) {
+            System.err.println("Email '" + subject + "' has no recipients, not queued");
+            return;
+        }
+        emailOutboxService.enqueue(to, cc, subject, body);
+    }
+
+    /**
+     * Performs the SMTP send for an outbox row. Throws on failure so the dispatcher can retry.
+     */
+    public void deliver(EmailOutbox outbox) {
+        String[] cc = outbox.getCcRecipients() != null && !outbox.getCcRecipients().isEmpty()
+                ? outbox.getCcRecipients().split(",") : null;
+        send(outbox.getToRecipients().split(","), cc, outbox.getSubject(), outbox.getBody());
+    }
+
+    private void send(String[] to, String[] cc, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (fromEmail != null) {
+            message.setFrom(fromEmail);
         }
+        message.setTo(to);
+        if (cc != null) {
+            message.setCc(cc);
+        }
+        message.setSubject(subject);
+        message.setText(body);
+        mailSender.send(message);
+        System.out.println("Email sent successfully to: " + String.join(",", to));
     }
 
+    /**
+     * Sent straight over SMTP rather than through the outbox so the code is never written to the database.
+     * Throws on failure; the caller decides how to report it.
+     */
     public void sendOtpEmail(String to, String otp) {
         String subject = "Your Password Reset OTP";
         String body = "Dear User,\n\n" +
@@ -43,36 +68,51 @@ public class EmailService {
                 "This OTP will expire in 10 minutes. If you did not request this, please ignore this email.\n\n" +
                 "Best regards,\n" +
                 "HR Team";
-        sendEmail(new String[] { to }, null, subject, body);
+        send(new String[] { to }, null, subject, body);
     }
 
     public void sendLeaveRequestEmail(String[] to, String[] cc, String employeeName, String leaveType, String startDate,
             String endDate, Double daysCount, String reason, String role, String breakdown, Double casualBal, Double sickBal, Double earnedBal) {
         String subject = "Leave Request Submitted: " + employeeName;
-        StringBuilder body = new StringBuilder();
-        body.append("Hello,\n\n");
-        body.append("A leave request has been submitted with the following details:\n\n");
-        body.append("Employee Name: ").append(employeeName).append("\n");
-        body.append("Role:          ").append(role).append("\n");
-        body.append("Leave Type:    ").append(leaveType).append("\n");
-        body.append(String.format("Total Days:    %.1f\n", daysCount));
-        body.append("Start Date:    ").append(startDate).append("\n");
-        body.append("End Date:      ").append(endDate).append("\n");
+        StringBuilder details = new StringBuilder();
+        details.append("Employee Name: ").append(employeeName).append("\n");
+        details.append("Role:          ").append(role).append("\n");
+        details.append("Leave Type:    ").append(leaveType).append("\n");
+        details.append(String.format("Total Days:    %.1f\n", daysCount));
+        details.append("Start Date:    ").append(startDate).append("\n");
+        details.append("End Date:      ").append(endDate).append("\n");
         
         if (breakdown != null && !breakdown.isEmpty()) {
-            body.append("\nLeave Breakdown:\n").append(breakdown).append("\n");
+            details.append("\nLeave Breakdown:\n").append(breakdown).append("\n");
         }
         
-        body.append("Reason:        ").append(reason).append("\n\n");
-        body.append("Current Available Balances (Post-Request):\n");
-        body.append(String.format(" - Casual Leaves: %.2f\n", casualBal));
-        body.append(String.format(" - Sick Leaves:   %.2f\n", sickBal));
-        body.append(String.format(" - Earned Leaves: %.2f\n\n", earnedBal));
+        details.append("Reason:        ").append(reason).append("\n\n");
+        details.append("Current Available Balances (Post-Request):\n");
+        details.append(String.format(" - Casual Leaves: %.2f\n", casualBal));
+        details.append(String.format(" - Sick Leaves:   %.2f\n", sickBal));
+        details.append(String.format(" - Earned Leaves: %.2f\n\n", earnedBal));
+
+        StringBuilder body = new StringBuilder();
+        body.append("Hello,\n\n");
+        body.append("A leave request has been submitted with the following details:\n\n");
+        body.append(details);
         body.append("Please log in to the HRMS portal to take necessary action.\n\n");
         body.append("Best regards,\n");
         body.append("HRMS Notification System");
         
-        sendEmail(to, cc, subject, body.toString());
+        // Recipients on a digest get the details block in their next digest instead
+        emailDigestService.route(to, cc, subject, body.toString(), details.toString(), false);
+    }
+
+    /**
+     * Timesheet submissions are announced in-app; by email they only reach recipients who opted into a digest.
+     */
+    public void sendTimesheetSubmittedEmail(String[] to, String employeeName, String weekStart) {
+        String subject = "Timesheet Submitted: " + employeeName;
+        StringBuilder details = new StringBuilder();
+        details.append("Employee Name: ").append(employeeName).append("\n");
+        details.append("Week Starting: ").append(weekStart).append("\n");
+        emailDigestService.route(to, null, subject, null, details.toString(), true);
     }
 
     public void sendLeaveStatusEmail(String[] to, String[] cc, String employeeName, String leaveType, String startDate,
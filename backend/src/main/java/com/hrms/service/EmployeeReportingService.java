@@ -12,6 +12,7 @@ import com.hrms.repository.EmployeeRepository;
 import com.hrms.repository.CompanyDetailRepository;
 import com.hrms.repository.EmployeeReportingRepository;
 import com.hrms.repository.UserRepository;
+import com.hrms.security.TokenVersionRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +30,8 @@ public class EmployeeReportingService {
     private final EmployeeRepository employeeRepository;
     private final UserRepository userRepository;
     private final CompanyDetailRepository companyDetailRepository;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final MyUserDetailsService userDetailsService;
 
     public List<ManagerSummaryDTO> listManagers() {
         // List<Employee> managers = repository.findDistinctReportingManagers();
@@ -46,13 +49,33 @@ public class EmployeeReportingService {
                 .collect(Collectors.toList());
     }
 
+    // Tokens and cached UserDetails carrying the old role are dropped once the change commits
+    @org.springframework.transaction.annotation.Transactional
+    public User changeUserRole(Long userId, Role role) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean roleChanged = user.getRole() != role;
+        if (roleChanged) {
+            tokenVersionRegistry.revoke(user);
+        }
+        user.setRole(role);
+        User updatedUser = userRepository.save(user);
+        if (roleChanged) {
+            userDetailsService.evict(user.getUsername());
+        }
+        return updatedUser;
+    }
+
+    @org.springframework.transaction.annotation.Transactional
     public Employee promoteToManager(Long employeeId) {
         Employee employee = employeeRepository.findById(employeeId).orElse(null);
         if (employee != null && employee.getUser() != null) {
             User u = employee.getUser();
             if (u.getRole() != Role.REPORTING_MANAGER) {
+                tokenVersionRegistry.revoke(u);
                 u.setRole(Role.REPORTING_MANAGER);
                 userRepository.save(u);
+                userDetailsService.evict(u.getUsername());
 
                 // NEW: Assign this new manager to report to ADMIN
                 ensureManagerReportsToAdmin(employee);
@@ -62,13 +85,16 @@ public class EmployeeReportingService {
         return null;
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public Employee promoteToHR(Long employeeId) {
         Employee employee = employeeRepository.findById(employeeId).orElse(null);
         if (employee != null && employee.getUser() != null) {
             User u = employee.getUser();
             if (u.getRole() != Role.HR) {
+                tokenVersionRegistry.revoke(u);
                 u.setRole(Role.HR);
                 userRepository.save(u);
+                userDetailsService.evict(u.getUsername());
 
                 // Ensure this new HR reports to Admin (similar to manager)
                 ensureHRReportsToAdmin(employee);
@@ -176,6 +202,7 @@ public class EmployeeReportingService {
                 .collect(Collectors.toList());
     }
 
+    @org.springframework.transaction.annotation.Transactional
     public EmployeeReporting createOrUpdate(EmployeeReportingRequest req) {
         if (req == null || req.getEmployeeId() == null)
             return null;
@@ -197,8 +224,10 @@ public class EmployeeReportingService {
             if (mgr != null && mgr.getUser() != null) {
                 User u = mgr.getUser();
                 if (u.getRole() == Role.EMPLOYEE) {
+                    tokenVersionRegistry.revoke(u);
                     u.setRole(Role.REPORTING_MANAGER);
                     userRepository.save(u);
+                    userDetailsService.evict(u.getUsername());
                     // Ensure this new manager reports to Admin
                     ensureManagerReportsToAdmin(mgr);
                 }
@@ -214,8 +243,10 @@ public class EmployeeReportingService {
             if (hr != null && hr.getUser() != null) {
                 User u = hr.getUser();
                 if (u.getRole() == Role.EMPLOYEE) {
+                    tokenVersionRegistry.revoke(u);
                     u.setRole(Role.HR);
                     userRepository.save(u);
+                    userDetailsService.evict(u.getUsername());
                     // Ensure this new HR reports to Admin
                     ensureHRReportsToAdmin(hr);
                 }
@@ -243,8 +274,10 @@ public class EmployeeReportingService {
             System.out.println("Found user: " + u.getId() + ", Current Role: " + u.getRole());
 
             if (u.getRole() == Role.REPORTING_MANAGER) {
+                tokenVersionRegistry.revoke(u);
                 u.setRole(Role.EMPLOYEE);
                 userRepository.saveAndFlush(u); // Flush to force DB update
+                userDetailsService.evict(u.getUsername());
                 System.out.println("Demoted user to EMPLOYEE");
             }
         }
@@ -15,6 +15,8 @@ import com.hrms.repository.EmployeeDocumentRepository;
 import com.hrms.repository.EmployeeEducationRepository;
 import com.hrms.repository.EmployeeExperienceRepository;
 import com.hrms.repository.UserRepository;
+import com.hrms.repository.LeaveCalendarDayRepository;
+import com.hrms.security.TokenVersionRegistry;
 import com.hrms.repository.CompanyDetailRepository;
 import com.hrms.model.CompanyDetail;
 import com.hrms.model.Leave;
@@ -58,6 +60,18 @@ public class EmployeeService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Autowired
+    private LeaveCalendarDayRepository leaveCalendarDayRepository;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
     @Autowired
     private CompanyDetailRepository companyDetailRepository;
 
@@ -307,6 +321,7 @@ public class EmployeeService {
             if (dto.getJoiningDate() != null)
                 details.setJoiningDate(dto.getJoiningDate());
             companyDetailRepository.save(details);
+            leaveBalanceService.evictBalanceView(employee.getId());
         }
 
         /*
@@ -461,12 +476,15 @@ public class EmployeeService {
                 companyDetailRepository.delete(details);
             });
 
-            // 9. Delete leave balances
+            // 9. Delete leave balances and their history
+            leaveLedgerService.deleteForEmployee(id);
             leaveBalanceRepository.findByEmployeeId(id).ifPresent(balance -> {
                 leaveBalanceRepository.delete(balance);
             });
+            leaveBalanceService.evictBalanceView(id);
 
-            // 10. Delete leave applications
+            // 10. Delete leave applications and their calendar rows
+            leaveCalendarDayRepository.deleteByEmployeeId(id);
             List<Leave> leaves = leaveRepository.findByEmployeeId(id);
             if (leaves != null && !leaves.isEmpty()) {
                 leaveRepository.deleteAll(leaves);
@@ -480,6 +498,8 @@ public class EmployeeService {
                 employee.setUser(null);
                 employeeRepository.save(employee);
                 userRepository.delete(userToDelete);
+                tokenVersionRegistry.forget(userId);
+                userDetailsService.evict(userToDelete.getUsername());
             }
 
             // 12. Finally delete employee
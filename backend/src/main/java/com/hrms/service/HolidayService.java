@@ -13,6 +13,9 @@ public class HolidayService {
     @Autowired
     private HolidayRepository holidayRepository;
 
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
     public List<Holiday> getAllHolidays() {
         return holidayRepository.findAll();
     }
@@ -22,7 +25,9 @@ public class HolidayService {
     }
 
     public Holiday createHoliday(Holiday holiday) {
-        return holidayRepository.save(holiday);
+        Holiday saved = holidayRepository.save(holiday);
+        workingDayCalendar.rebuild();
+        return saved;
     }
 
     public Holiday updateHoliday(Long id, Holiday holidayDetails) {
@@ -35,10 +40,13 @@ public class HolidayService {
         holiday.setDescription(holidayDetails.getDescription());
         holiday.setYear(holidayDetails.getYear());
 
-        return holidayRepository.save(holiday);
+        Holiday saved = holidayRepository.save(holiday);
+        workingDayCalendar.rebuild();
+        return saved;
     }
 
     public void deleteHoliday(Long id) {
         holidayRepository.deleteById(id);
+        workingDayCalendar.rebuild();
     }
 }
@@ -2,16 +2,33 @@ package com.hrms.service;
 
 import com.hrms.model.Employee;
 import com.hrms.model.LeaveBalance;
+import com.hrms.model.LeaveType;
+import com.hrms.model.LedgerEntryType;
 import com.hrms.repository.LeaveBalanceRepository;
 import com.hrms.repository.EmployeeRepository;
 import com.hrms.repository.CompanyDetailRepository;
 import com.hrms.model.CompanyDetail;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -27,6 +44,160 @@ public class LeaveBalanceService {
     @Autowired
     private CompanyDetailRepository companyDetailRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private LeaveLedgerService leaveLedgerService;
+
+    @Value("${hrms.leave.balance-view-cache.max-size:10000}")
+    private long viewCacheMaxSize;
+
+    @Value("${hrms.leave.balance-view-cache.ttl-seconds:60}")
+    private long viewCacheTtlSeconds;
+
+    // Read side for leave previews; evicted on every balance or joining-date change
+    private Cache<Long, BalanceView> viewCache;
+
+    /**
+     * Remaining days per type plus the joining date, as shown by {@link #getLeaveBalance}.
+     */
+    public record BalanceView(LocalDate joiningDate, double casualRemaining, double sickRemaining,
+                              double earnedRemaining) {
+        public double remaining(LeaveType leaveType) {
+            return switch (leaveType) {
+                case CASUAL -> casualRemaining;
+                case SICK -> sickRemaining;
+                case EARNED -> earnedRemaining;
+            };
+        }
+    }
+
+    @PostConstruct
+    public void initViewCache() {
+        viewCache = Caffeine.newBuilder()
+                .maximumSize(viewCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(viewCacheTtlSeconds))
+                .build();
+    }
+
+    /**
+     * Cached form of {@link #getLeaveBalance}. Good enough for validation as the user types;
+     * createLeave still checks against the stored row.
+     */
+    @Transactional(readOnly = true)
+    public BalanceView getBalanceView(Long employeeId) {
+        return viewCache.get(employeeId, id -> {
+            LeaveBalance balance = getLeaveBalance(id);
+            return new BalanceView(joiningDateOf(id), balance.getCasualLeavesRemaining(),
+                    balance.getSickLeavesRemaining(), balance.getEarnedLeavesRemaining());
+        });
+    }
+
+    /**
+     * Drops the cached view now and again after the surrounding transaction commits, so a read
+     * that races the commit cannot leave the old values cached.
+     */
+    public void evictBalanceView(Long employeeId) {
+        viewCache.invalidate(employeeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    viewCache.invalidate(employeeId);
+                }
+            });
+        }
+    }
+
+    // Same after-commit replay as evictBalanceView, for set-based updates that touch every balance
+    public void evictAllBalanceViews() {
+        viewCache.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    viewCache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Atomically adds {@code days} to the used count if the remaining balance covers it,
+     * and records the deduction in the leave ledger. Returns false (and changes nothing) when it does not.
+     */
+    public boolean tryDeduct(Long employeeId, LeaveType leaveType, double days, Long leaveId) {
+        if (days <= 0) {
+            return false;
+        }
+        int updated = switch (leaveType) {
+            case CASUAL -> leaveBalanceRepository.deductCasual(employeeId, days);
+            case SICK -> leaveBalanceRepository.deductSick(employeeId, days);
+            case EARNED -> leaveBalanceRepository.deductEarned(employeeId, days);
+        };
+        if (updated == 0) {
+            return false;
+        }
+        syncManagedBalance(employeeId);
+        evictBalanceView(employeeId);
+        leaveLedgerService.record(employeeId, leaveType, LedgerEntryType.DEDUCTION, 0.0, days, leaveId,
+                "Leave submitted", LocalDateTime.now());
+        return true;
+    }
+
+    /**
+     * Atomically gives {@code days} back, never taking the used count below zero.
+     */
+    public void restore(Long employeeId, LeaveType leaveType, double days, Long leaveId) {
+        restore(employeeId, leaveType, Map.of(leaveId, days));
+    }
+
+    /**
+     * Restores several leaves of one employee and type with a single UPDATE, writing one ledger
+     * entry per leave. Used by bulk rejection.
+     */
+    public void restore(Long employeeId, LeaveType leaveType, Map<Long, Double> daysByLeaveId) {
+        LeaveBalance before = leaveBalanceRepository.findByEmployeeId(employeeId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Leave balance not found"));
+        entityManager.refresh(before);
+        double usedBefore = usedOf(before, leaveType);
+        double days = daysByLeaveId.values().stream().mapToDouble(Double::doubleValue).sum();
+
+        switch (leaveType) {
+            case CASUAL -> leaveBalanceRepository.restoreCasual(employeeId, days);
+            case SICK -> leaveBalanceRepository.restoreSick(employeeId, days);
+            case EARNED -> leaveBalanceRepository.restoreEarned(employeeId, days);
+        }
+        syncManagedBalance(employeeId);
+        evictBalanceView(employeeId);
+
+        // Record what was actually given back, which differs from days only when the clamp kicked in
+        double remaining = usedBefore - usedOf(before, leaveType);
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Double> entry : daysByLeaveId.entrySet()) {
+            double restored = Math.min(entry.getValue(), remaining);
+            remaining -= restored;
+            leaveLedgerService.record(employeeId, leaveType, LedgerEntryType.RESTORATION, 0.0, -restored,
+                    entry.getKey(), "Leave rejected", now);
+        }
+    }
+
+    private double usedOf(LeaveBalance balance, LeaveType leaveType) {
+        Double used = switch (leaveType) {
+            case CASUAL -> balance.getCasualLeavesUsed();
+            case SICK -> balance.getSickLeavesUsed();
+            case EARNED -> balance.getEarnedLeavesUsed();
+        };
+        return used != null ? used : 0.0;
+    }
+
+    // Bulk updates bypass the persistence context; re-read any already-loaded copy so later
+    // reads in this transaction see the new values and the bumped version
+    private void syncManagedBalance(Long employeeId) {
+        leaveBalanceRepository.findByEmployeeId(employeeId).ifPresent(entityManager::refresh);
+    }
+
     public LeaveBalance initializeLeaveBalance(Long employeeId) {
         Employee employee = employeeRepository.findById(employeeId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
@@ -45,73 +216,216 @@ public class LeaveBalanceService {
         balance.setEarnedLeavesUsed(0.0);
 
         LeaveBalance saved = leaveBalanceRepository.save(balance);
+        evictBalanceView(employeeId);
         return refreshLeaveBalance(saved);
     }
 
+    /**
+     * Entitled totals as of {@code today}, derived only from the joining date.
+     */
+    public record Entitlement(double casualTotal, double sickTotal, double earnedTotal) {}
+
+    public Entitlement computeEntitlement(LocalDate joiningDate, LocalDate today) {
+        LocalDate eligibilityDate = joiningDate.plusMonths(6);
+        LocalDate elEligibilityDate = joiningDate.plusYears(1);
+
+        // Probation: nothing accrues
+        if (today.isBefore(eligibilityDate)) {
+            return new Entitlement(0.0, 0.0, 0.0);
+        }
+
+        // Casual and Sick Leave accrual (pro-rata within the current year)
+        double casual = 0.0;
+        double sick = 0.0;
+        LocalDate startOfThisYear = LocalDate.of(today.getYear(), 1, 1);
+        LocalDate clAccrualStart = eligibilityDate.isAfter(startOfThisYear) ? eligibilityDate : startOfThisYear;
+        if (!today.isBefore(clAccrualStart)) {
+            long monthsEligibleThisYear = ChronoUnit.MONTHS.between(clAccrualStart.withDayOfMonth(1), today.withDayOfMonth(1)) + 1;
+            casual = round(Math.min(10.0, monthsEligibleThisYear * (10.0 / 12.0)));
+            sick = round(Math.min(6.0, monthsEligibleThisYear * 0.5));
+        }
+
+        // Earned Leave accrual (cumulative since 1 year completion)
+        double earned = 0.0;
+        if (!today.isBefore(elEligibilityDate)) {
+            long elMonths = ChronoUnit.MONTHS.between(elEligibilityDate.withDayOfMonth(1), today.withDayOfMonth(1)) + 1;
+            earned = round(elMonths * 1.0);
+        }
+        return new Entitlement(casual, sick, earned);
+    }
+
+    private boolean isYearRollover(LeaveBalance balance, LocalDate today) {
+        Integer resetYear = balance.getLastResetYear() != null ? balance.getLastResetYear()
+                : balance.getLastUpdated() != null ? Integer.valueOf(balance.getLastUpdated().getYear()) : null;
+        return resetYear != null && resetYear < today.getYear();
+    }
+
+    private boolean isCurrent(LeaveBalance balance, Entitlement entitlement) {
+        return Objects.equals(balance.getCasualLeavesTotal(), entitlement.casualTotal())
+                && Objects.equals(balance.getSickLeavesTotal(), entitlement.sickTotal())
+                && Objects.equals(balance.getEarnedLeavesTotal(), entitlement.earnedTotal());
+    }
+
+    /**
+     * Brings the stored totals up to date. Writes only when the accrued totals changed or the
+     * year rolled over; otherwise the balance is returned untouched.
+     */
     public LeaveBalance refreshLeaveBalance(LeaveBalance balance) {
         if (balance == null || balance.getEmployee() == null) return balance;
-        
-        CompanyDetail detail = companyDetailRepository.findByEmployee_Id(balance.getEmployee().getId())
-                .orElse(null);
-        
-        if (detail == null || detail.getJoiningDate() == null) {
+
+        if (!applyRefresh(balance, joiningDateOf(balance.getEmployee().getId()), LocalDate.now())) {
             return balance;
         }
+        evictBalanceView(balance.getEmployee().getId());
+        return leaveBalanceRepository.save(balance);
+    }
 
-        LocalDate now = LocalDate.now();
-        LocalDate joiningDate = detail.getJoiningDate();
-        LocalDate eligibilityDate = joiningDate.plusMonths(6);
-        LocalDate elEligibilityDate = joiningDate.plusYears(1);
+    /**
+     * Applies accrual and the year reset to a managed balance and records the ledger entries.
+     * Returns false without touching anything when the balance is already current.
+     */
+    private boolean applyRefresh(LeaveBalance balance, LocalDate joiningDate, LocalDate today) {
+        if (joiningDate == null) {
+            return false;
+        }
+        Entitlement entitlement = computeEntitlement(joiningDate, today);
+        boolean rollover = isYearRollover(balance, today);
+        if (!rollover && isCurrent(balance, entitlement)) {
+            return false;
+        }
+        recordChanges(balance, entitlement, rollover);
+        applyEntitlement(balance, entitlement, rollover, today);
+        return true;
+    }
+
+    /**
+     * Refreshes one chunk of balances in its own transaction: one joined read, and the changed rows are
+     * flushed together as a JDBC batch on commit. Returns the number of balances that changed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int refreshChunk(List<Long> balanceIds, LocalDate today) {
+        int changed = 0;
+        for (Object[] row : leaveBalanceRepository.findWithJoiningDate(balanceIds)) {
+            LeaveBalance balance = (LeaveBalance) row[0];
+            if (applyRefresh(balance, (LocalDate) row[1], today)) {
+                evictBalanceView(balance.getEmployee().getId());
+                changed++;
+            }
+        }
+        return changed;
+    }
 
-        // 1. Handle Year Reset (Jan 1) for Casual and Sick Leaves
-        if (balance.getLastUpdated() != null && balance.getLastUpdated().getYear() < now.getYear()) {
+    // Ledger entries for the difference between the stored row and what applyEntitlement will write
+    private void recordChanges(LeaveBalance balance, Entitlement entitlement, boolean rollover) {
+        Long employeeId = balance.getEmployee().getId();
+        LocalDateTime now = LocalDateTime.now();
+        if (rollover) {
+            leaveLedgerService.record(employeeId, LeaveType.CASUAL, LedgerEntryType.RESET, 0.0,
+                    -orZero(balance.getCasualLeavesUsed()), null, "Year reset", now);
+            leaveLedgerService.record(employeeId, LeaveType.SICK, LedgerEntryType.RESET, 0.0,
+                    -orZero(balance.getSickLeavesUsed()), null, "Year reset", now);
+        }
+        leaveLedgerService.record(employeeId, LeaveType.CASUAL, LedgerEntryType.ACCRUAL,
+                round(entitlement.casualTotal() - orZero(balance.getCasualLeavesTotal())), 0.0, null, "Accrual", now);
+        leaveLedgerService.record(employeeId, LeaveType.SICK, LedgerEntryType.ACCRUAL,
+                round(entitlement.sickTotal() - orZero(balance.getSickLeavesTotal())), 0.0, null, "Accrual", now);
+        leaveLedgerService.record(employeeId, LeaveType.EARNED, LedgerEntryType.ACCRUAL,
+                round(entitlement.earnedTotal() - orZero(balance.getEarnedLeavesTotal())), 0.0, null, "Accrual", now);
+    }
+
+    private double orZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private void applyEntitlement(LeaveBalance balance, Entitlement entitlement, boolean rollover, LocalDate today) {
+        if (rollover) {
+            // Casual and Sick reset on Jan 1; Earned Leave used is carried forward
             balance.setCasualLeavesUsed(0.0);
             balance.setSickLeavesUsed(0.0);
-            // Earned Leave used is NOT reset (carry forward)
+            balance.setLastResetYear(today.getYear());
         }
+        balance.setCasualLeavesTotal(entitlement.casualTotal());
+        balance.setSickLeavesTotal(entitlement.sickTotal());
+        balance.setEarnedLeavesTotal(entitlement.earnedTotal());
+    }
 
-        // 2. Probation check
-        if (now.isBefore(eligibilityDate)) {
-            balance.setCasualLeavesTotal(0.0);
-            balance.setSickLeavesTotal(0.0);
-            balance.setEarnedLeavesTotal(0.0);
-        } else {
-            // 3. Casual and Sick Leave Accrual (Pro-rata)
-            LocalDate startOfThisYear = LocalDate.of(now.getYear(), 1, 1);
-            LocalDate clAccrualStart = eligibilityDate.isAfter(startOfThisYear) ? eligibilityDate : startOfThisYear;
-
-            if (!now.isBefore(clAccrualStart)) {
-                // Number of months since accrual start in THIS YEAR
-                long monthsEligibleThisYear = ChronoUnit.MONTHS.between(clAccrualStart.withDayOfMonth(1), now.withDayOfMonth(1)) + 1;
-                balance.setCasualLeavesTotal(round(Math.min(10.0, monthsEligibleThisYear * (10.0 / 12.0))));
-                balance.setSickLeavesTotal(round(Math.min(6.0, monthsEligibleThisYear * 0.5)));
-            } else {
-                balance.setCasualLeavesTotal(0.0);
-                balance.setSickLeavesTotal(0.0);
-            }
+    private LocalDate joiningDateOf(Long employeeId) {
+        return companyDetailRepository.findByEmployee_Id(employeeId)
+                .map(CompanyDetail::getJoiningDate)
+                .orElse(null);
+    }
 
-            // 4. Earned Leave (EL) accrual (Cumulative since 1 year completion)
-            if (!now.isBefore(elEligibilityDate)) {
-                long elMonths = ChronoUnit.MONTHS.between(elEligibilityDate.withDayOfMonth(1), now.withDayOfMonth(1)) + 1;
-                balance.setEarnedLeavesTotal(round(elMonths * 1.0));
-            } else {
-                balance.setEarnedLeavesTotal(0.0);
-            }
-        }
-        
-        return leaveBalanceRepository.save(balance);
+    /**
+     * Makes sure the stored row exists and is current before a conditional deduction runs against it.
+     */
+    public LeaveBalance prepareForUpdate(Long employeeId) {
+        return leaveBalanceRepository.findByEmployeeId(employeeId)
+                .map(this::refreshLeaveBalance)
+                .orElseGet(() -> initializeLeaveBalance(employeeId));
     }
 
     private double round(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
 
+    /**
+     * Current balance with accrual applied in memory. Never writes: the returned object is a
+     * detached copy, and employees without a row get an unsaved one.
+     */
+    @Transactional(readOnly = true)
     public LeaveBalance getLeaveBalance(Long employeeId) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeId(employeeId)
-                .orElseGet(() -> initializeLeaveBalance(employeeId));
-        return refreshLeaveBalance(balance);
+        LeaveBalance stored = leaveBalanceRepository.findByEmployeeId(employeeId).orElse(null);
+        LeaveBalance view = new LeaveBalance();
+        if (stored != null) {
+            view.setId(stored.getId());
+            view.setEmployee(stored.getEmployee());
+            view.setCasualLeavesTotal(stored.getCasualLeavesTotal());
+            view.setCasualLeavesUsed(stored.getCasualLeavesUsed());
+            view.setSickLeavesTotal(stored.getSickLeavesTotal());
+            view.setSickLeavesUsed(stored.getSickLeavesUsed());
+            view.setEarnedLeavesTotal(stored.getEarnedLeavesTotal());
+            view.setEarnedLeavesUsed(stored.getEarnedLeavesUsed());
+            view.setLastUpdated(stored.getLastUpdated());
+            view.setVersion(stored.getVersion());
+        } else {
+            Employee employee = employeeRepository.findById(employeeId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
+            view.setEmployee(employee);
+            view.setCasualLeavesTotal(0.0);
+            view.setCasualLeavesUsed(0.0);
+            view.setSickLeavesTotal(0.0);
+            view.setSickLeavesUsed(0.0);
+            view.setEarnedLeavesTotal(0.0);
+            view.setEarnedLeavesUsed(0.0);
+        }
+
+        LocalDate joiningDate = joiningDateOf(employeeId);
+        if (joiningDate != null) {
+            LocalDate today = LocalDate.now();
+            applyEntitlement(view, computeEntitlement(joiningDate, today), isYearRollover(view, today), today);
+        }
+        return view;
+    }
+
+    /**
+     * Jan 1 reset of casual and sick leave for every employee not yet reset for {@code year}:
+     * one set-based statement, safe to re-run. Returns the number of balances reset and ledger entries written.
+     */
+    public Map<String, Object> runYearEndReset(int year) {
+        Object[] counts = leaveBalanceRepository.applyYearEndReset(year).get(0);
+        int balancesReset = ((Number) counts[0]).intValue();
+        int ledgerEntries = ((Number) counts[1]).intValue();
+        evictAllBalanceViews();
+        System.out.println("[LeaveBalanceService] Year-end reset for " + year + ": " + balancesReset
+                + " balances reset, " + ledgerEntries + " ledger entries");
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("year", year);
+        result.put("balancesReset", balancesReset);
+        result.put("ledgerEntries", ledgerEntries);
+        return result;
     }
 
+    @Transactional(readOnly = true)
     public Double getRemainingLeaves(Long employeeId) {
         LeaveBalance balance = getLeaveBalance(employeeId);
         return round(balance.getCasualLeavesRemaining() + balance.getSickLeavesRemaining()
@@ -0,0 +1,173 @@
+package com.hrms.service;
+
+import com.hrms.dto.CalendarAttendanceDTO;
+import com.hrms.model.Employee;
+import com.hrms.model.Leave;
+import com.hrms.model.LeaveCalendarDay;
+import com.hrms.model.LeaveDayDetail;
+import com.hrms.model.LeaveStatus;
+import com.hrms.repository.LeaveCalendarDayRepository;
+import com.hrms.repository.LeaveRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the leave_calendar_day read model so calendar reads are a single indexed range scan.
+ * Rows are written in the same transaction as the leave status change.
+ */
+@Service
+@Transactional
+public class LeaveCalendarService {
+
+    @Autowired
+    private LeaveCalendarDayRepository leaveCalendarDayRepository;
+
+    @Autowired
+    private LeaveRepository leaveRepository;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    /**
+     * Writes one row per day of an approved leave, replacing any rows it already had.
+     * Weekends and holidays are kept here and filtered on read, so later holiday edits need no rebuild.
+     */
+    public void materialize(Leave leave) {
+        leaveCalendarDayRepository.deleteByLeaveId(leave.getId());
+        if (leave.getStatus() != LeaveStatus.APPROVED) {
+            return;
+        }
+        leaveCalendarDayRepository.saveAll(buildRows(leave));
+    }
+
+    public void remove(Long leaveId) {
+        leaveCalendarDayRepository.deleteByLeaveId(leaveId);
+    }
+
+    /**
+     * Batch form of materialize: one delete for all the leaves, then one saveAll for the approved ones.
+     */
+    public void materializeAll(List<Leave> leaves) {
+        if (leaves.isEmpty()) return;
+        leaveCalendarDayRepository.deleteByLeaveIdIn(leaves.stream().map(Leave::getId).toList());
+        List<LeaveCalendarDay> rows = new ArrayList<>();
+        for (Leave leave : leaves) {
+            if (leave.getStatus() == LeaveStatus.APPROVED) {
+                rows.addAll(buildRows(leave));
+            }
+        }
+        leaveCalendarDayRepository.saveAll(rows);
+    }
+
+    public void removeAll(List<Long> leaveIds) {
+        if (leaveIds.isEmpty()) return;
+        leaveCalendarDayRepository.deleteByLeaveIdIn(leaveIds);
+    }
+
+    private List<LeaveCalendarDay> buildRows(Leave leave) {
+        List<LeaveCalendarDay> rows = new ArrayList<>();
+        if (leave.getStartDate() == null || leave.getEndDate() == null || leave.getEmployee() == null) {
+            return rows;
+        }
+        Employee employee = leave.getEmployee();
+        String employeeName = employee.getFirstName() + " " + employee.getLastName();
+
+        Map<LocalDate, String> sessions = new HashMap<>();
+        if (leave.getDayDetails() != null) {
+            for (LeaveDayDetail d : leave.getDayDetails()) {
+                sessions.put(d.getLeaveDate(), d.getDayType());
+            }
+        }
+
+        for (LocalDate date = leave.getStartDate(); !date.isAfter(leave.getEndDate()); date = date.plusDays(1)) {
+            rows.add(LeaveCalendarDay.builder()
+                    .calendarDate(date)
+                    .employeeId(employee.getId())
+                    .leaveId(leave.getId())
+                    .employeeName(employeeName)
+                    .dayType(sessions.getOrDefault(date, "FULL"))
+                    .build());
+        }
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarAttendanceDTO getCalendarAttendance(LocalDate start, LocalDate end) {
+        Map<String, Set<String>> byDate = new LinkedHashMap<>();
+        for (LeaveCalendarDay day : leaveCalendarDayRepository.findByCalendarDateBetweenOrderByCalendarDateAscIdAsc(start, end)) {
+            if (!workingDayCalendar.isWorkingDay(day.getCalendarDate())) {
+                continue;
+            }
+            byDate.computeIfAbsent(day.getCalendarDate().toString(), d -> new LinkedHashSet<>()).add(day.getEmployeeName());
+        }
+
+        Map<String, List<String>> dailyLeaves = new HashMap<>();
+        byDate.forEach((date, names) -> dailyLeaves.put(date, new ArrayList<>(names)));
+        return new CalendarAttendanceDTO(dailyLeaves);
+    }
+
+    /**
+     * Rebuilds the whole read model from approved leaves. Used for backfill and repair.
+     * Must run inside a transaction. Leaves are read in id pages with their employee and day details
+     * fetch-joined, and the persistence context is cleared after each page so memory stays bounded.
+     */
+    public int rebuildAll() {
+        leaveCalendarDayRepository.deleteAllInBatch();
+        int count = 0;
+        long afterId = 0L;
+        List<Long> ids;
+        while (!(ids = leaveRepository.findIdsByStatusAfter(LeaveStatus.APPROVED, afterId,
+                PageRequest.of(0, REBUILD_PAGE_SIZE))).isEmpty()) {
+            List<LeaveCalendarDay> rows = new ArrayList<>();
+            for (Leave leave : leaveRepository.findByIdInWithDetails(ids)) {
+                rows.addAll(buildRows(leave));
+            }
+            leaveCalendarDayRepository.saveAll(rows);
+            count += rows.size();
+            afterId = ids.get(ids.size() - 1);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        System.out.println("[LeaveCalendarService] Rebuilt leave calendar with " + count + " rows");
+        return count;
+    }
+
+    // Backfill on first start after the table is introduced; failures must not stop startup.
+    // rebuildAll is a self-call here, so its transaction comes from the template rather than the proxy.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillIfEmpty() {
+        try {
+            if (leaveCalendarDayRepository.count() == 0 && leaveRepository.existsByStatus(LeaveStatus.APPROVED)) {
+                transactionTemplate.executeWithoutResult(status -> rebuildAll());
+            }
+        } catch (Exception e) {
+            System.err.println("[LeaveCalendarService] Backfill failed: " + e.getMessage());
+        }
+    }
+}
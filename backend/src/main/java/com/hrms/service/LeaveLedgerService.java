@@ -0,0 +1,196 @@
+package com.hrms.service;
+
+import com.hrms.model.LeaveBalance;
+import com.hrms.model.LeaveBalanceSnapshot;
+import com.hrms.model.LeaveLedgerEntry;
+import com.hrms.model.LeaveType;
+import com.hrms.model.LedgerEntryType;
+import com.hrms.repository.LeaveBalanceRepository;
+import com.hrms.repository.LeaveBalanceSnapshotRepository;
+import com.hrms.repository.LeaveLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only history of leave balance changes plus monthly snapshots.
+ * Balance as of any instant = latest snapshot at or before it + the ledger entries since.
+ */
+@Service
+@Transactional
+public class LeaveLedgerService {
+
+    // Lower bound for replays when an employee has no snapshot yet
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private LeaveLedgerRepository leaveLedgerRepository;
+
+    @Autowired
+    private LeaveBalanceSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    public void record(Long employeeId, LeaveType leaveType, LedgerEntryType entryType,
+                       double totalDelta, double usedDelta, Long leaveId, String note, LocalDateTime effectiveAt) {
+        if (totalDelta == 0.0 && usedDelta == 0.0) return;
+        leaveLedgerRepository.save(LeaveLedgerEntry.builder()
+                .employeeId(employeeId)
+                .leaveType(leaveType)
+                .entryType(entryType)
+                .totalDelta(totalDelta)
+                .usedDelta(usedDelta)
+                .leaveId(leaveId)
+                .note(note)
+                .effectiveAt(effectiveAt)
+                .build());
+    }
+
+    /**
+     * Balance as it stood just before {@code at}. Returns an unsaved LeaveBalance used as a value object.
+     */
+    @Transactional(readOnly = true)
+    public LeaveBalance balanceAsOf(Long employeeId, LocalDateTime at) {
+        LeaveBalance result = new LeaveBalance();
+        result.setCasualLeavesTotal(0.0);
+        result.setCasualLeavesUsed(0.0);
+        result.setSickLeavesTotal(0.0);
+        result.setSickLeavesUsed(0.0);
+        result.setEarnedLeavesTotal(0.0);
+        result.setEarnedLeavesUsed(0.0);
+
+        LocalDateTime from = BEGINNING;
+        LeaveBalanceSnapshot snapshot = snapshotRepository
+                .findFirstByEmployeeIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(employeeId, at)
+                .orElse(null);
+        if (snapshot != null) {
+            result.setCasualLeavesTotal(snapshot.getCasualLeavesTotal());
+            result.setCasualLeavesUsed(snapshot.getCasualLeavesUsed());
+            result.setSickLeavesTotal(snapshot.getSickLeavesTotal());
+            result.setSickLeavesUsed(snapshot.getSickLeavesUsed());
+            result.setEarnedLeavesTotal(snapshot.getEarnedLeavesTotal());
+            result.setEarnedLeavesUsed(snapshot.getEarnedLeavesUsed());
+            from = snapshot.getSnapshotAt();
+        }
+
+        for (LeaveLedgerEntry entry : leaveLedgerRepository.findTail(employeeId, from, at)) {
+            apply(result, entry);
+        }
+        result.setLastUpdated(at);
+        return result;
+    }
+
+    private void apply(LeaveBalance balance, LeaveLedgerEntry entry) {
+        double total = entry.getTotalDelta();
+        double used = entry.getUsedDelta();
+        switch (entry.getLeaveType()) {
+            case CASUAL -> {
+                balance.setCasualLeavesTotal(round(balance.getCasualLeavesTotal() + total));
+                balance.setCasualLeavesUsed(round(balance.getCasualLeavesUsed() + used));
+            }
+            case SICK -> {
+                balance.setSickLeavesTotal(round(balance.getSickLeavesTotal() + total));
+                balance.setSickLeavesUsed(round(balance.getSickLeavesUsed() + used));
+            }
+            case EARNED -> {
+                balance.setEarnedLeavesTotal(round(balance.getEarnedLeavesTotal() + total));
+                balance.setEarnedLeavesUsed(round(balance.getEarnedLeavesUsed() + used));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<LeaveLedgerEntry> getEntries(Long employeeId, LocalDate from, LocalDate to) {
+        return leaveLedgerRepository.findByEmployeeIdAndEffectiveAtBetweenOrderByEffectiveAtAscIdAsc(
+                employeeId, from.atStartOfDay(), to.plusDays(1).atStartOfDay().minusNanos(1000));
+    }
+
+    /**
+     * Snapshots every employee's balance as of 00:00 on the first of the month.
+     */
+    @Scheduled(cron = "0 15 0 1 * *")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void takeMonthlySnapshots() {
+        LocalDateTime snapshotAt = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        int taken = 0;
+        for (Long employeeId : leaveLedgerRepository.findEmployeeIds()) {
+            try {
+                if (snapshotRepository.existsByEmployeeIdAndSnapshotAt(employeeId, snapshotAt)) continue;
+                LeaveBalance balance = balanceAsOf(employeeId, snapshotAt);
+                snapshotRepository.save(LeaveBalanceSnapshot.builder()
+                        .employeeId(employeeId)
+                        .snapshotAt(snapshotAt)
+                        .casualLeavesTotal(balance.getCasualLeavesTotal())
+                        .casualLeavesUsed(balance.getCasualLeavesUsed())
+                        .sickLeavesTotal(balance.getSickLeavesTotal())
+                        .sickLeavesUsed(balance.getSickLeavesUsed())
+                        .earnedLeavesTotal(balance.getEarnedLeavesTotal())
+                        .earnedLeavesUsed(balance.getEarnedLeavesUsed())
+                        .build());
+                taken++;
+            } catch (Exception e) {
+                System.err.println("[LeaveLedger] Snapshot failed for employee " + employeeId + ": " + e.getMessage());
+            }
+        }
+        System.out.println("[LeaveLedger] Took " + taken + " balance snapshots as of " + snapshotAt);
+    }
+
+    /**
+     * Gives balances that predate the ledger an opening entry so replays match the stored totals.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfillOpeningEntries() {
+        try {
+            List<LeaveBalance> missing = leaveBalanceRepository.findWithoutLedgerEntries();
+            if (missing.isEmpty()) return;
+            LocalDateTime now = LocalDateTime.now();
+            List<LeaveLedgerEntry> entries = new ArrayList<>();
+            for (LeaveBalance balance : missing) {
+                Long employeeId = balance.getEmployee().getId();
+                addOpening(entries, employeeId, LeaveType.CASUAL, balance.getCasualLeavesTotal(), balance.getCasualLeavesUsed(), now);
+                addOpening(entries, employeeId, LeaveType.SICK, balance.getSickLeavesTotal(), balance.getSickLeavesUsed(), now);
+                addOpening(entries, employeeId, LeaveType.EARNED, balance.getEarnedLeavesTotal(), balance.getEarnedLeavesUsed(), now);
+            }
+            leaveLedgerRepository.saveAll(entries);
+            System.out.println("[LeaveLedger] Wrote opening entries for " + missing.size() + " balances");
+        } catch (Exception e) {
+            System.err.println("[LeaveLedger] Opening backfill failed: " + e.getMessage());
+        }
+    }
+
+    private void addOpening(List<LeaveLedgerEntry> entries, Long employeeId, LeaveType type,
+                            Double total, Double used, LocalDateTime at) {
+        double t = total != null ? total : 0.0;
+        double u = used != null ? used : 0.0;
+        if (t == 0.0 && u == 0.0) return;
+        entries.add(LeaveLedgerEntry.builder()
+                .employeeId(employeeId)
+                .leaveType(type)
+                .entryType(LedgerEntryType.ACCRUAL)
+                .totalDelta(t)
+                .usedDelta(u)
+                .note("Opening balance")
+                .effectiveAt(at)
+                .build());
+    }
+
+    public void deleteForEmployee(Long employeeId) {
+        leaveLedgerRepository.deleteByEmployeeId(employeeId);
+        snapshotRepository.deleteByEmployeeId(employeeId);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -2,11 +2,16 @@ package com.hrms.service;
 
 import com.hrms.dto.LeaveDTO;
 import com.hrms.dto.CalendarAttendanceDTO;
+import com.hrms.dto.BulkLeaveDecisionResult;
+import com.hrms.dto.CursorPage;
+import com.hrms.dto.LeavePreviewDTO;
+import com.hrms.dto.LeaveOverlapDTO;
 import com.hrms.model.Employee;
 import com.hrms.model.Leave;
 import com.hrms.model.LeaveBalance;
 import com.hrms.model.LeaveStatus;
 import com.hrms.model.LeaveType;
+import com.hrms.model.Role;
 import com.hrms.model.User;
 import com.hrms.model.LeaveDayDetail;
 import com.hrms.model.CompanyDetail;
@@ -16,6 +21,10 @@ import com.hrms.repository.LeaveRepository;
 import com.hrms.repository.LeaveBalanceRepository;
 import com.hrms.repository.UserRepository;
 import com.hrms.repository.LeaveDayDetailRepository;
+import com.hrms.repository.LeaveSpecifications;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -25,12 +34,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,6 +59,9 @@ public class LeaveService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -59,7 +78,13 @@ public class LeaveService {
     private com.hrms.repository.EmployeeReportingRepository employeeReportingRepository;
 
     @Autowired
-    private com.hrms.repository.HolidayRepository holidayRepository;
+    private WorkingDayCalendar workingDayCalendar;
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private LeaveCalendarService leaveCalendarService;
 
     @Autowired
     private LeaveDayDetailRepository leaveDayDetailRepository;
@@ -69,6 +94,17 @@ public class LeaveService {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_BULK_DECISION = 200;
+
+    private static final int MAX_PREVIEW_DAYS = 366;
+
+    private static final int MAX_OVERLAP_AUDIT = 1000;
+
+    // Leaves that hold days on the calendar; a new request may not intersect any of them
+    private static final List<LeaveStatus> ACTIVE_STATUSES = List.of(LeaveStatus.PENDING, LeaveStatus.APPROVED);
+
     // Fetch all leaves for team members of a manager
     public List<Leave> getTeamLeavesByManagerId(Long managerId) {
         List<com.hrms.model.EmployeeReporting> team = employeeReportingRepository
@@ -78,13 +114,11 @@ public class LeaveService {
         if (employeeIds.isEmpty()) {
             return java.util.Collections.emptyList();
         }
-        return leaveRepository.findByEmployeeIdIn(employeeIds);
+        return leaveRepository.findByEmployeeIdInWithDetails(employeeIds);
     }
 
     public List<LeaveDTO> getAllLeaves() {
-        return leaveRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(leaveRepository.findAllWithDetails());
     }
 
     public LeaveDTO getLeaveById(Long id) {
@@ -94,19 +128,83 @@ public class LeaveService {
     }
 
     public List<LeaveDTO> getLeavesByEmployeeId(Long employeeId) {
-        return leaveRepository.findByEmployeeIdOrderBySubmittedAtDesc(employeeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(leaveRepository.findByEmployeeIdWithDetails(employeeId));
     }
 
     public List<LeaveDTO> getRecentLeavesByEmployeeId(Long employeeId, int limit) {
-        return leaveRepository.findByEmployeeIdOrderBySubmittedAtDesc(employeeId).stream()
-                .limit(limit)
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<Long> ids = leaveRepository.findRecentIdsByEmployeeId(employeeId, PageRequest.of(0, Math.max(1, limit)));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return convertToDTOs(leaveRepository.findByIdInWithDetails(ids));
+    }
+
+    /**
+     * Newest-first leave listing with keyset pagination on (submittedAt, id).
+     * Every filter is optional; cursor is the nextCursor of the previous page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<LeaveDTO> searchLeaves(Long employeeId, Long departmentId, String status, String leaveType,
+                                             LocalDate from, LocalDate to, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Specification<Leave> spec = Specification.where(LeaveSpecifications.hasEmployee(employeeId))
+                .and(LeaveSpecifications.hasDepartment(departmentId))
+                .and(LeaveSpecifications.hasStatus(parseEnum(LeaveStatus.class, status)))
+                .and(LeaveSpecifications.hasType(parseEnum(LeaveType.class, leaveType)))
+                .and(LeaveSpecifications.overlaps(from, to));
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = decodeCursor(cursor);
+            spec = spec.and(LeaveSpecifications.before(LocalDateTime.parse(key[0]), Long.valueOf(key[1])));
+        }
+
+        // One row past the page tells us whether another page exists without a count query
+        List<Leave> rows = leaveRepository.findBy(spec, q -> q
+                .sortBy(Sort.by(Sort.Order.desc("submittedAt"), Sort.Order.desc("id")))
+                .limit(pageSize + 1)
+                .all());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Leave last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getSubmittedAt(), last.getId());
+        }
+        return new CursorPage<>(convertToDTOs(rows), nextCursor);
+    }
+
+    private static String encodeCursor(LocalDateTime submittedAt, Long id) {
+        String raw = submittedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] key = raw.split("\\|");
+            LocalDateTime.parse(key[0]);
+            Long.valueOf(key[1]);
+            return key;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + type.getSimpleName() + ": " + value);
+        }
     }
 
     public LeaveDTO createLeave(LeaveDTO dto) {
+        // A zero or negative request would credit the balance instead of deducting from it
+        if (dto.getDaysCount() == null || dto.getDaysCount() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "daysCount must be greater than zero");
+        }
+
         Employee employee = employeeRepository.findById(dto.getEmployeeId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
 
@@ -127,8 +225,8 @@ public class LeaveService {
                 "Leave is not allowed during the first 6 months of service (Probation). Eligibility starts on " + eligibilityDateStage1);
         }
 
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeId(dto.getEmployeeId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Leave balance not found"));
+        // Accrual is persisted lazily; bring the row current before the conditional deduction runs on it
+        LeaveBalance balance = leaveBalanceService.prepareForUpdate(dto.getEmployeeId());
 
         LeaveType leaveType = LeaveType.valueOf(dto.getLeaveType().toUpperCase());
         
@@ -138,7 +236,7 @@ public class LeaveService {
                 "Earned Leave eligibility starts only after 1 year of service. Your EL starts on " + elEligibilityDate);
         }
 
-        double daysRequested = dto.getDaysCount() != null ? dto.getDaysCount() : 0.0;
+        double daysRequested = dto.getDaysCount();
 
         // Check if employee has sufficient balance
         if (!hassufficientBalance(balance, leaveType, daysRequested)) {
@@ -164,6 +262,17 @@ public class LeaveService {
 
         Leave saved = leaveRepository.save(leave);
 
+        // Deduct balance immediately on submission; the pre-check above is only a fast path.
+        // A failed deduction rolls back the insert above.
+        updateLeaveBalance(saved, true);
+
+        // Checked after the deduction: its UPDATE holds the employee's balance row lock until commit,
+        // so a concurrent submission for the same employee waits here and then sees this leave
+        Leave overlapping = findFirstOverlap(employee.getId(), saved.getStartDate(), saved.getEndDate(), saved.getId());
+        if (overlapping != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, overlapMessage(overlapping));
+        }
+
         // Save daily breakdown to leave_details table
         if (dto.getSessionData() != null) {
             List<LeaveDayDetail> details = new ArrayList<>();
@@ -178,9 +287,6 @@ public class LeaveService {
             saved.setDayDetails(details);
         }
 
-        // Deduct balance immediately on submission
-        updateLeaveBalance(saved, true);
-
         // Send Email Notifications
         sendLeaveEmails(saved);
 
@@ -370,12 +476,19 @@ public class LeaveService {
         User approver = userRepository.findById(approverId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Approver not found"));
 
+        // Same compare-and-set as bulkDecision so a concurrent decision cannot act on this leave twice
+        if (leaveRepository.transitionStatus(id, LeaveStatus.PENDING, LeaveStatus.APPROVED) == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only PENDING leaves can be approved");
+        }
         leave.setStatus(LeaveStatus.APPROVED);
         leave.setApprovedBy(approver);
         leave.setReviewedAt(LocalDateTime.now());
 
         Leave approved = leaveRepository.save(leave);
 
+        // Keep the calendar read model in step within the same transaction
+        leaveCalendarService.materialize(approved);
+
         // Send Status Email
         sendStatusEmail(approved);
 
@@ -404,12 +517,17 @@ public class LeaveService {
         User approver = userRepository.findById(approverId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Approver not found"));
 
+        // Same compare-and-set as bulkDecision so a concurrent decision cannot act on this leave twice
+        if (leaveRepository.transitionStatus(id, LeaveStatus.PENDING, LeaveStatus.REJECTED) == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only PENDING leaves can be rejected");
+        }
         leave.setStatus(LeaveStatus.REJECTED);
         leave.setRejectionReason(reason);
         leave.setApprovedBy(approver);
         leave.setReviewedAt(LocalDateTime.now());
 
         Leave rejected = leaveRepository.save(leave);
+        leaveCalendarService.remove(rejected.getId());
 
         // Restore balance on rejection
         updateLeaveBalance(rejected, false);
@@ -431,6 +549,127 @@ public class LeaveService {
         return convertToDTO(rejected);
     }
 
+    /**
+     * Approves or rejects many PENDING leaves in one transaction. Leaves are loaded in one query and
+     * claimed in one UPDATE, balance restorations are grouped per employee and leave type, and
+     * notifications and status emails are emitted together once every status change is in place.
+     * ADMIN and HR may decide any leave; a reporting manager only those of their direct reports, and
+     * nobody their own. Ids that are missing, not the approver's to decide, or no longer PENDING are
+     * reported as skipped rather than failing the batch.
+     */
+    public BulkLeaveDecisionResult bulkDecision(List<Long> ids, String decision, Long approverId, String reason) {
+        boolean approve;
+        if ("APPROVE".equalsIgnoreCase(decision) || "APPROVED".equalsIgnoreCase(decision)) {
+            approve = true;
+        } else if ("REJECT".equalsIgnoreCase(decision) || "REJECTED".equalsIgnoreCase(decision)) {
+            approve = false;
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "decision must be APPROVE or REJECT");
+        }
+        if (ids == null || ids.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not be empty");
+        }
+        if (!approve && (reason == null || reason.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "reason is required when rejecting");
+        }
+        if (ids.size() > MAX_BULK_DECISION) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_BULK_DECISION + " leaves per request");
+        }
+
+        User approver = userRepository.findById(approverId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Approver not found"));
+        Long approverEmployeeId = employeeRepository.findByUser_Id(approverId).map(Employee::getId).orElse(null);
+        boolean decidesAnyone = approver.getRole() == Role.ADMIN || approver.getRole() == Role.HR;
+        Set<Long> directReports = new HashSet<>();
+        if (!decidesAnyone && approver.getRole() == Role.REPORTING_MANAGER && approverEmployeeId != null) {
+            for (EmployeeReporting reporting : employeeReportingRepository.findAllByReportingManager_Id(approverEmployeeId)) {
+                directReports.add(reporting.getEmployee().getId());
+            }
+        }
+
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        Map<Long, Leave> loaded = new HashMap<>();
+        for (Leave leave : leaveRepository.findByIdInWithDetails(distinctIds)) {
+            loaded.put(leave.getId(), leave);
+        }
+
+        Map<Long, String> skipped = new java.util.LinkedHashMap<>();
+        List<Long> eligible = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Leave leave = loaded.get(id);
+            if (leave == null) {
+                skipped.put(id, "Leave not found");
+                continue;
+            }
+            Long ownerId = leave.getEmployee().getId();
+            if (ownerId.equals(approverEmployeeId)) {
+                skipped.put(id, "You cannot decide your own leave");
+            } else if (!decidesAnyone && !directReports.contains(ownerId)) {
+                skipped.put(id, "Leave does not belong to one of your direct reports");
+            } else if (leave.getStatus() != LeaveStatus.PENDING) {
+                skipped.put(id, "Leave is " + leave.getStatus() + ", only PENDING leaves can be decided");
+            } else {
+                eligible.add(id);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LeaveStatus target = approve ? LeaveStatus.APPROVED : LeaveStatus.REJECTED;
+        Set<Long> claimed = eligible.isEmpty() ? Set.of()
+                : new HashSet<>(leaveRepository.claimPending(eligible, target.name(), approverId, now, approve ? null : reason));
+
+        List<Leave> decided = new ArrayList<>();
+        org.hibernate.Session session = entityManager.unwrap(org.hibernate.Session.class);
+        for (Long id : eligible) {
+            Leave leave = loaded.get(id);
+            if (!claimed.contains(id)) {
+                // Decided by a concurrent request after we loaded it; that request owns the balance change
+                skipped.put(id, "Leave was already decided by another request");
+                continue;
+            }
+            // The claim already wrote these columns; read-only keeps the in-memory copy from being flushed again
+            session.setReadOnly(leave, true);
+            leave.setStatus(target);
+            if (!approve) leave.setRejectionReason(reason);
+            leave.setApprovedBy(approver);
+            leave.setReviewedAt(now);
+            decided.add(leave);
+        }
+
+        if (approve) {
+            leaveCalendarService.materializeAll(decided);
+        } else {
+            leaveCalendarService.removeAll(decided.stream().map(Leave::getId).collect(Collectors.toList()));
+            // One UPDATE per (employee, leave type) instead of one per leave
+            Map<Long, Map<LeaveType, Map<Long, Double>>> grouped = new HashMap<>();
+            for (Leave leave : decided) {
+                grouped.computeIfAbsent(leave.getEmployee().getId(), k -> new HashMap<>())
+                        .computeIfAbsent(leave.getLeaveType(), k -> new java.util.LinkedHashMap<>())
+                        .put(leave.getId(), leave.getDaysCount() != null ? leave.getDaysCount() : 0.0);
+            }
+            grouped.forEach((employeeId, byType) -> byType.forEach((type, days) ->
+                    leaveBalanceService.restore(employeeId, type, days)));
+        }
+
+        List<NotificationService.NotificationRequest> notifications = new ArrayList<>();
+        for (Leave leave : decided) {
+            if (leave.getEmployee().getUser() == null) continue;
+            notifications.add(new NotificationService.NotificationRequest(
+                    leave.getEmployee().getUser().getId(),
+                    approve ? "Leave Approved" : "Leave Rejected",
+                    approve ? "Your " + leave.getLeaveType() + " leave request has been approved."
+                            : "Your " + leave.getLeaveType() + " leave request has been rejected. Reason: " + reason,
+                    "LEAVE",
+                    leave.getId()));
+        }
+        notificationService.createNotifications(notifications);
+        for (Leave leave : decided) {
+            sendStatusEmail(leave);
+        }
+
+        return new BulkLeaveDecisionResult(convertToDTOs(decided), skipped);
+    }
+
     private void sendStatusEmail(Leave leave) {
         try {
             Employee employee = leave.getEmployee();
@@ -509,6 +748,146 @@ public class LeaveService {
         }
     }
 
+    /**
+     * Dry run of createLeave: the same eligibility and balance checks, reported as a list instead of
+     * thrown one at a time. Reads only the cached balance view and the in-memory holiday calendar.
+     */
+    @Transactional(readOnly = true)
+    public LeavePreviewDTO previewLeave(LeaveDTO dto) {
+        LeavePreviewDTO preview = new LeavePreviewDTO();
+        List<String> violations = preview.getViolations();
+
+        if (dto.getEmployeeId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "employeeId is required");
+        }
+        LeaveBalanceService.BalanceView view = leaveBalanceService.getBalanceView(dto.getEmployeeId());
+
+        LeaveType leaveType = null;
+        try {
+            leaveType = LeaveType.valueOf(dto.getLeaveType().toUpperCase());
+            preview.setLeaveType(leaveType.name());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            violations.add("Invalid leave type: " + dto.getLeaveType());
+        }
+
+        LocalDate now = LocalDate.now();
+        if (view.joiningDate() == null) {
+            violations.add("Employee joining date is missing");
+        } else {
+            LocalDate eligibilityDateStage1 = view.joiningDate().plusMonths(6);
+            LocalDate elEligibilityDate = view.joiningDate().plusYears(1);
+            preview.setEligibilityDate(eligibilityDateStage1);
+            preview.setEarnedLeaveEligibilityDate(elEligibilityDate);
+            if (now.isBefore(eligibilityDateStage1)) {
+                violations.add("Leave is not allowed during the first 6 months of service (Probation). Eligibility starts on "
+                        + eligibilityDateStage1);
+            }
+            if (leaveType == LeaveType.EARNED && now.isBefore(elEligibilityDate)) {
+                violations.add("Earned Leave eligibility starts only after 1 year of service. Your EL starts on "
+                        + elEligibilityDate);
+            }
+        }
+
+        LocalDate start = dto.getStartDate();
+        LocalDate end = dto.getEndDate();
+        if (start == null || end == null) {
+            violations.add("Start date and end date are required");
+        } else if (end.isBefore(start)) {
+            violations.add("End date cannot be before start date");
+        } else if (start.plusDays(MAX_PREVIEW_DAYS).isBefore(end)) {
+            violations.add("Leave cannot span more than " + MAX_PREVIEW_DAYS + " days");
+        } else {
+            preview.setChargeableDays(previewDays(preview, start, end, dto.getSessionData()));
+            Leave overlapping = findFirstOverlap(dto.getEmployeeId(), start, end, null);
+            if (overlapping != null) {
+                violations.add(overlapMessage(overlapping));
+            }
+        }
+
+        if (leaveType != null && preview.getChargeableDays() != null) {
+            // createLeave charges the client's daysCount when one is sent, so the balance check does too
+            double charged = preview.getChargeableDays();
+            if (dto.getDaysCount() != null) {
+                if (Math.abs(dto.getDaysCount() - charged) > 0.001) {
+                    preview.getWarnings().add("daysCount " + dto.getDaysCount() + " differs from the "
+                            + charged + " working days in the selected range");
+                }
+                charged = dto.getDaysCount();
+            }
+            double before = view.remaining(leaveType);
+            preview.setBalanceBefore(before);
+            preview.setBalanceAfter(Math.round((before - charged) * 100.0) / 100.0);
+            if (before < charged) {
+                violations.add("Insufficient leave balance");
+            }
+        }
+
+        preview.setAllowed(violations.isEmpty());
+        return preview;
+    }
+
+    private Leave findFirstOverlap(Long employeeId, LocalDate start, LocalDate end, Long excludeLeaveId) {
+        List<Leave> found = leaveRepository.findOverlapping(employeeId, start, end, ACTIVE_STATUSES,
+                excludeLeaveId != null ? excludeLeaveId : -1L, PageRequest.of(0, 1));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private String overlapMessage(Leave overlapping) {
+        return "Leave overlaps an existing " + overlapping.getStatus().name().toLowerCase() + " leave from "
+                + overlapping.getStartDate() + " to " + overlapping.getEndDate();
+    }
+
+    /**
+     * Existing pairs of pending/approved leaves of the same employee that overlap, for cleaning up
+     * data written before createLeave rejected overlaps.
+     */
+    @Transactional(readOnly = true)
+    public List<LeaveOverlapDTO> findOverlappingLeaves(Long employeeId, Integer limit) {
+        int size = limit == null ? MAX_OVERLAP_AUDIT : Math.max(1, Math.min(limit, MAX_OVERLAP_AUDIT));
+        List<Object[]> rows = employeeId != null
+                ? leaveRepository.findOverlappingPairsByEmployeeId(employeeId, ACTIVE_STATUSES, PageRequest.of(0, size))
+                : leaveRepository.findOverlappingPairs(ACTIVE_STATUSES, PageRequest.of(0, size));
+        return rows.stream()
+                .map(row -> new LeaveOverlapDTO((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDate) row[3],
+                        (Long) row[4], (LocalDate) row[5], (LocalDate) row[6]))
+                .collect(Collectors.toList());
+    }
+
+    // Per-day breakdown using the same sessions the UI sends: FULL counts 1, MORNING/AFTERNOON 0.5,
+    // weekends and holidays 0. Days without an entry default to FULL, as in the request form.
+    private double previewDays(LeavePreviewDTO preview, LocalDate start, LocalDate end, Map<String, String> sessionData) {
+        Map<LocalDate, String> sessions = new HashMap<>();
+        if (sessionData != null) {
+            sessionData.forEach((dateStr, session) -> {
+                try {
+                    LocalDate date = LocalDate.parse(dateStr);
+                    if (date.isBefore(start) || date.isAfter(end)) {
+                        preview.getWarnings().add("Session for " + dateStr + " is outside the selected range and is ignored");
+                    } else {
+                        sessions.put(date, session != null ? session.toUpperCase() : "FULL");
+                    }
+                } catch (DateTimeParseException e) {
+                    preview.getWarnings().add("Ignoring session with invalid date: " + dateStr);
+                }
+            });
+        }
+
+        double total = 0.0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            String session = sessions.getOrDefault(date, "FULL");
+            if (workingDayCalendar.isHoliday(date)) {
+                preview.getDays().add(new LeavePreviewDTO.DayPreview(date, session, 0.0, "HOLIDAY"));
+            } else if (workingDayCalendar.isWeekend(date)) {
+                preview.getDays().add(new LeavePreviewDTO.DayPreview(date, session, 0.0, "WEEKEND"));
+            } else {
+                double chargeable = "MORNING".equals(session) || "AFTERNOON".equals(session) ? 0.5 : 1.0;
+                preview.getDays().add(new LeavePreviewDTO.DayPreview(date, session, chargeable, null));
+                total += chargeable;
+            }
+        }
+        return total;
+    }
+
     private boolean hassufficientBalance(LeaveBalance balance, LeaveType leaveType, double daysRequested) {
         return switch (leaveType) {
             case CASUAL -> balance.getCasualLeavesRemaining() >= daysRequested;
@@ -520,99 +899,48 @@ public class LeaveService {
     private double calculateLeaveDays(LocalDate startDate, LocalDate endDate, Boolean startHalf, Boolean endHalf) {
         if (startDate == null || endDate == null)
             return 0;
-        
-        // Fetch all holidays
-        List<String> holidayDates = holidayRepository.findAll().stream()
-                .map(com.hrms.model.Holiday::getHolidayDate)
-                .filter(java.util.Objects::nonNull)
-                .map(String::trim)
-                .collect(Collectors.toList());
 
-        double totalDays = 0;
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            boolean isWeekend = date.getDayOfWeek() == java.time.DayOfWeek.SATURDAY
-                    || date.getDayOfWeek() == java.time.DayOfWeek.SUNDAY;
-            
-            String dateStr = date.toString();
-            boolean isHoliday = holidayDates.contains(dateStr);
-            
-            if (isWeekend || isHoliday) {
-                continue;
-            }
+        boolean startIsHalf = startHalf != null && startHalf;
+        boolean endIsHalf = endHalf != null && endHalf;
 
-            if (date.equals(startDate) && date.equals(endDate)) {
-                // If both are checked for the same day, it's 0.5. If either is, it's 0.5.
-                totalDays += (startHalf != null && startHalf) || (endHalf != null && endHalf) ? 0.5 : 1.0;
-            } else if (date.equals(startDate) && startHalf != null && startHalf) {
-                totalDays += 0.5;
-            } else if (date.equals(endDate) && endHalf != null && endHalf) {
-                totalDays += 0.5;
-            } else {
-                totalDays += 1.0;
+        double totalDays = workingDayCalendar.workingDaysBetween(startDate, endDate);
+
+        if (startDate.equals(endDate)) {
+            // If both are checked for the same day, it's 0.5. If either is, it's 0.5.
+            if ((startIsHalf || endIsHalf) && workingDayCalendar.isWorkingDay(startDate)) {
+                totalDays -= 0.5;
+            }
+        } else {
+            if (startIsHalf && workingDayCalendar.isWorkingDay(startDate)) {
+                totalDays -= 0.5;
+            }
+            if (endIsHalf && workingDayCalendar.isWorkingDay(endDate)) {
+                totalDays -= 0.5;
             }
         }
         return totalDays;
     }
 
     private void updateLeaveBalance(Leave leave, boolean deduct) {
-        LeaveBalance balance = leaveBalanceRepository.findByEmployeeId(leave.getEmployee().getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Leave balance not found"));
-
+        Long employeeId = leave.getEmployee().getId();
         double days = leave.getDaysCount() != null ? leave.getDaysCount() : 0.0;
-        double change = deduct ? days : -days;
 
-        switch (leave.getLeaveType()) {
-            case CASUAL:
-                balance.setCasualLeavesUsed(Math.max(0.0, balance.getCasualLeavesUsed() + change));
-                break;
-            case SICK:
-                balance.setSickLeavesUsed(Math.max(0.0, balance.getSickLeavesUsed() + change));
-                break;
-            case EARNED:
-                balance.setEarnedLeavesUsed(Math.max(0.0, balance.getEarnedLeavesUsed() + change));
-                break;
+        if (deduct) {
+            // Conditional UPDATE: fails instead of overdrawing when a concurrent request used the balance first
+            if (!leaveBalanceService.tryDeduct(employeeId, leave.getLeaveType(), days, leave.getId())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient leave balance");
+            }
+        } else {
+            leaveBalanceService.restore(employeeId, leave.getLeaveType(), days, leave.getId());
         }
-
-        leaveBalanceRepository.save(balance);
     }
 
+    @Transactional(readOnly = true)
     public CalendarAttendanceDTO getCalendarAttendance(LocalDate start, LocalDate end) {
         System.out.println("CALENDAR_DEBUG: Fetching attendance from " + start + " to " + end);
         try {
-            // Use repository to filter by status directly
-            List<Leave> allApproved = leaveRepository.findByStatus(LeaveStatus.APPROVED);
-
-            System.out.println("CALENDAR_DEBUG: Total approved leaves in DB: " + allApproved.size());
-
-            // Filter by date range in memory
-            List<Leave> approvedLeaves = allApproved.stream()
-                    .filter(l -> l.getStartDate() != null && l.getEndDate() != null)
-                    .filter(l -> !(l.getEndDate().isBefore(start) || l.getStartDate().isAfter(end)))
-                    .collect(Collectors.toList());
-
-            System.out.println("CALENDAR_DEBUG: Approved leaves in range: " + approvedLeaves.size());
-
-            Map<String, List<String>> dailyLeaves = new HashMap<>();
-
-            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-                if (date.getDayOfWeek() == java.time.DayOfWeek.SATURDAY
-                        || date.getDayOfWeek() == java.time.DayOfWeek.SUNDAY) {
-                    continue;
-                }
-
-                final LocalDate current = date;
-                List<String> names = approvedLeaves.stream()
-                        .filter(l -> l.getEmployee() != null)
-                        .filter(l -> !current.isBefore(l.getStartDate()) && !current.isAfter(l.getEndDate()))
-                        .map(l -> l.getEmployee().getFirstName() + " " + l.getEmployee().getLastName())
-                        .collect(Collectors.toList());
-
-                if (!names.isEmpty()) {
-                    dailyLeaves.put(current.toString(), names);
-                }
-            }
-
-            return new CalendarAttendanceDTO(dailyLeaves);
+            // Served from the leave_calendar_day read model maintained on approve/reject
+            return leaveCalendarService.getCalendarAttendance(start, end);
         } catch (Exception e) {
             System.err.println("CALENDAR_ERROR: Failed to calculate attendance: " + e.getMessage());
             e.printStackTrace();
@@ -635,20 +963,13 @@ public class LeaveService {
             }
         }
 
-        List<String> holidayDates = holidayRepository.findAll().stream()
-                .map(com.hrms.model.Holiday::getHolidayDate)
-                .filter(java.util.Objects::nonNull)
-                .map(String::trim)
-                .collect(Collectors.toList());
-
         StringBuilder sb = new StringBuilder();
         for (LocalDate date = leave.getStartDate(); !date.isAfter(leave.getEndDate()); date = date.plusDays(1)) {
             String dateStr = date.toString();
             sb.append(" - ").append(dateStr).append(": ");
             
-            boolean isWeekend = date.getDayOfWeek() == java.time.DayOfWeek.SATURDAY
-                    || date.getDayOfWeek() == java.time.DayOfWeek.SUNDAY;
-            boolean isHoliday = holidayDates.contains(dateStr);
+            boolean isWeekend = workingDayCalendar.isWeekend(date);
+            boolean isHoliday = workingDayCalendar.isHoliday(date);
 
             if (isHoliday) {
                 sb.append("Public Holiday");
@@ -671,6 +992,45 @@ public class LeaveService {
     }
 
     public LeaveDTO convertToDTO(Leave leave) {
+        return convertToDTOs(List.of(leave)).get(0);
+    }
+
+    /**
+     * Converts a list of leaves with a fixed number of queries: approver names and
+     * balances are loaded up front with IN queries instead of once per leave.
+     */
+    public List<LeaveDTO> convertToDTOs(List<Leave> leaves) {
+        if (leaves.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> approverUserIds = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        for (Leave leave : leaves) {
+            if (leave.getApprovedBy() != null) approverUserIds.add(leave.getApprovedBy().getId());
+            employeeIds.add(leave.getEmployee().getId());
+        }
+
+        Map<Long, String> approverNames = new HashMap<>();
+        if (!approverUserIds.isEmpty()) {
+            for (Employee approver : employeeRepository.findByUser_IdIn(approverUserIds)) {
+                approverNames.put(approver.getUser().getId(), approver.getFirstName() + " " + approver.getLastName());
+            }
+        }
+
+        Map<Long, LeaveBalance> balances = new HashMap<>();
+        for (LeaveBalance balance : leaveBalanceRepository.findByEmployeeIdIn(employeeIds)) {
+            balances.put(balance.getEmployee().getId(), balance);
+        }
+
+        List<LeaveDTO> dtos = new ArrayList<>(leaves.size());
+        for (Leave leave : leaves) {
+            dtos.add(toDTO(leave, approverNames, balances.get(leave.getEmployee().getId())));
+        }
+        return dtos;
+    }
+
+    private LeaveDTO toDTO(Leave leave, Map<Long, String> approverNames, LeaveBalance balance) {
         LeaveDTO dto = new LeaveDTO();
         dto.setId(leave.getId());
         dto.setEmployeeId(leave.getEmployee().getId());
@@ -683,38 +1043,29 @@ public class LeaveService {
         dto.setRejectionReason(leave.getRejectionReason());
         dto.setSubmittedAt(leave.getSubmittedAt());
         if (leave.getApprovedBy() != null) {
-            // Look up Employee by User to get full name
-            String fullName = null;
-            try {
-                var empOpt = employeeRepository.findByUser(leave.getApprovedBy());
-                if (empOpt.isPresent()) {
-                    var emp = empOpt.get();
-                    fullName = emp.getFirstName() + " " + emp.getLastName();
-                }
-            } catch (Exception ignored) {
-            }
+            String fullName = approverNames.get(leave.getApprovedBy().getId());
             dto.setApprovedBy(fullName != null ? fullName : leave.getApprovedBy().getUsername());
         }
         dto.setReviewedAt(leave.getReviewedAt());
         dto.setDaysCount(leave.getDaysCount());
-        
+
         final Map<String, String> sessionMap = new HashMap<>();
         if (leave.getDayDetails() != null && !leave.getDayDetails().isEmpty()) {
             leave.getDayDetails().forEach(d -> sessionMap.put(d.getLeaveDate().toString(), d.getDayType()));
             dto.setSessionData(sessionMap);
         } else if (leave.getSessionData() != null) {
+            // Legacy rows created before day details existed
             try {
                 sessionMap.putAll(objectMapper.readValue(leave.getSessionData(), new TypeReference<Map<String, String>>() {}));
                 dto.setSessionData(sessionMap);
             } catch (JsonProcessingException ignored) {}
         }
 
-        // Populate leave balance
-        leaveBalanceRepository.findByEmployeeId(leave.getEmployee().getId()).ifPresent(balance -> {
+        if (balance != null) {
             dto.setCasualLeavesRemaining(balance.getCasualLeavesRemaining());
             dto.setSickLeavesRemaining(balance.getSickLeavesRemaining());
             dto.setEarnedLeavesRemaining(balance.getEarnedLeavesRemaining());
-        });
+        }
 
         return dto;
     }
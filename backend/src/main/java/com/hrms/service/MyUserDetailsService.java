@@ -24,36 +24,124 @@
 //			System.out.println("user 404");
 //			throw new UsernameNotFoundException("user 404");
 //		}
-//		
+//
 //		return new UserPrincipal(user);
 //	}
 //
 //}
 package com.hrms.service;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hrms.model.User;
 import com.hrms.model.UserPrincipal;
 import com.hrms.repository.UserRepository;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class MyUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository repo;
 
+    @Value("${hrms.security.user-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${hrms.security.user-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, UserDetails> cache;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
+        // Unknown usernames throw from the loader and are never cached
+        return cache.get(username, this::loadFromRepository);
+    }
+
+    private UserDetails loadFromRepository(String username) {
         return repo.findByUsername(username)
-            .map(UserPrincipal::new)
+            .map(user -> new UserPrincipal(snapshot(user)))
             .orElseThrow(() ->
                 new UsernameNotFoundException("User not found: " + username)
             );
     }
+
+    // Cached principals are shared across requests, so they hold a private copy rather than the loaded entity
+    private static User snapshot(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setRole(user.getRole());
+        copy.setActive(user.getActive());
+        copy.setTokenVersion(user.getTokenVersion());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        return copy;
+    }
+
+    /**
+     * Must be called whenever a user's role, password or active flag changes.
+     * Inside a transaction the entry is dropped again after commit, so a load
+     * that races the commit cannot leave the old values cached.
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidate(username);
+        invalidations.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("maxSize", cacheMaxSize);
+        result.put("ttlSeconds", cacheTtlSeconds);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.get());
+        return result;
+    }
 }
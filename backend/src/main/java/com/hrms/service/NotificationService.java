@@ -9,7 +9,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,6 +46,48 @@ public class NotificationService {
         }
     }
 
+    public record NotificationRequest(Long userId, String title, String message, String type, Long relatedId) {}
+
+    /**
+     * Batch form of createNotification with the same de-duplication: one user lookup, one query for
+     * existing unread notifications per type, and a single saveAll.
+     */
+    public void createNotifications(List<NotificationRequest> requests) {
+        if (requests.isEmpty()) return;
+
+        Set<Long> userIds = requests.stream().map(NotificationRequest::userId).collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+
+        Set<String> seen = new HashSet<>();
+        for (String type : requests.stream().map(NotificationRequest::type).collect(Collectors.toSet())) {
+            for (Notification existing : notificationRepository.findUnreadByUserIdsAndType(userIds, type)) {
+                seen.add(dedupKey(existing.getUser().getId(), existing.getTitle(), existing.getMessage(), existing.getType()));
+            }
+        }
+
+        List<Notification> toSave = new ArrayList<>();
+        for (NotificationRequest request : requests) {
+            User user = users.get(request.userId());
+            if (user == null || !seen.add(dedupKey(user.getId(), request.title(), request.message(), request.type()))) {
+                continue;
+            }
+            toSave.add(Notification.builder()
+                    .user(user)
+                    .title(request.title())
+                    .message(request.message())
+                    .type(request.type())
+                    .relatedId(request.relatedId())
+                    .isRead(false)
+                    .build());
+        }
+        notificationRepository.saveAll(toSave);
+    }
+
+    private String dedupKey(Long userId, String title, String message, String type) {
+        return userId + "\n" + title + "\n" + message + "\n" + type;
+    }
+
     public List<NotificationDTO> getNotificationsForUser(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         return notificationRepository.findByUserOrderByCreatedAtDesc(user)
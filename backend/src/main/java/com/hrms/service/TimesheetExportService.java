@@ -0,0 +1,252 @@
+package com.hrms.service;
+
+import com.hrms.model.TimesheetStatus;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timesheet export for billing. Rows are read through a forward-only JDBC cursor and written to the
+ * response as they arrive, so neither entities nor the full result set are ever held in memory.
+ */
+@Service
+public class TimesheetExportService {
+
+    public enum Format { CSV, XLSX }
+
+    private static final String[] HEADERS = {
+            "Date", "Employee ID", "Employee Code", "Employee Name", "Category", "Project", "Project Name",
+            "Task", "Task Description", "Hours", "Billable", "Onsite/Offshore", "Billing Location",
+            "Leave Type", "Status", "Notes"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Rows per round trip while the cursor is open
+    @Value("${hrms.timesheet.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Writes every timesheet matching the supplied filters, ordered by date, employee and id.
+     * Null filters are left out of the SQL.
+     */
+    public void export(Long employeeId, LocalDate fromDate, LocalDate toDate, TimesheetStatus status,
+                       Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT t.date, e.id AS employee_id, cd.oryfolks_id, e.first_name, e.last_name, t.category,
+                       t.project, t.project_name, t.task, t.task_description, t.total_hours, t.billable,
+                       t.onsite_offshore, t.billing_location, t.leave_type, t.status, t.notes
+                FROM timesheets t
+                JOIN employees e ON e.id = t.employee_id
+                LEFT JOIN company_details cd ON cd.employee_id = e.id
+                WHERE 1 = 1""");
+        List<Object> params = new ArrayList<>();
+        if (employeeId != null) {
+            sql.append(" AND t.employee_id = ?");
+            params.add(employeeId);
+        }
+        if (fromDate != null) {
+            sql.append(" AND t.date >= ?");
+            params.add(Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            sql.append(" AND t.date <= ?");
+            params.add(Date.valueOf(toDate));
+        }
+        if (status != null) {
+            sql.append(" AND t.status = ?");
+            params.add(status.name());
+        }
+        sql.append(" ORDER BY t.date, e.id, t.id");
+
+        // The Postgres driver only streams with a fetch size when autocommit is off, hence the transaction
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try {
+                RowSink sink = format == Format.XLSX ? new XlsxSink(out) : new CsvSink(out);
+                sink.header();
+                jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(sql.toString(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                }, rs -> {
+                    try {
+                        sink.row(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                sink.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private interface RowSink {
+        void header() throws IOException;
+        void row(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+
+    private static String employeeName(ResultSet rs) throws SQLException {
+        String first = rs.getString("first_name");
+        String last = rs.getString("last_name");
+        return ((first != null ? first : "") + " " + (last != null ? last : "")).trim();
+    }
+
+    private static Double hours(ResultSet rs) throws SQLException {
+        double value = rs.getDouble("total_hours");
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Boolean billable(ResultSet rs) throws SQLException {
+        boolean value = rs.getBoolean("billable");
+        return rs.wasNull() ? null : value;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void header() throws IOException {
+            // BOM so Excel opens the file as UTF-8
+            writer.write('\uFEFF');
+            for (int i = 0; i < HEADERS.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(HEADERS[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Date date = rs.getDate("date");
+            Double hours = hours(rs);
+            Boolean billable = billable(rs);
+            String[] values = {
+                    date != null ? date.toLocalDate().toString() : null,
+                    String.valueOf(rs.getLong("employee_id")),
+                    rs.getString("oryfolks_id"),
+                    employeeName(rs),
+                    rs.getString("category"),
+                    rs.getString("project"),
+                    rs.getString("project_name"),
+                    rs.getString("task"),
+                    rs.getString("task_description"),
+                    hours != null ? hours.toString() : null,
+                    billable != null ? (billable ? "Yes" : "No") : null,
+                    rs.getString("onsite_offshore"),
+                    rs.getString("billing_location"),
+                    rs.getString("leave_type"),
+                    rs.getString("status"),
+                    rs.getString("notes")
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180 quoting; free-text cells that start like a formula are prefixed so spreadsheets show them as text
+        private static String escape(String value) {
+            if (value == null || value.isEmpty()) return "";
+            if ("=+-@".indexOf(value.charAt(0)) >= 0 && !value.matches("-?\\d+(\\.\\d+)?")) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+            return value;
+        }
+    }
+
+    private static final class XlsxSink implements RowSink {
+        private final XlsxStreamWriter xlsx;
+
+        XlsxSink(OutputStream out) throws IOException {
+            this.xlsx = new XlsxStreamWriter(out, "Timesheets");
+        }
+
+        @Override
+        public void header() throws IOException {
+            xlsx.startRow();
+            for (String header : HEADERS) {
+                xlsx.text(header);
+            }
+            xlsx.endRow();
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            Date date = rs.getDate("date");
+            xlsx.startRow();
+            xlsx.date(date != null ? date.toLocalDate() : null);
+            xlsx.number(rs.getLong("employee_id"));
+            xlsx.text(rs.getString("oryfolks_id"));
+            xlsx.text(employeeName(rs));
+            xlsx.text(rs.getString("category"));
+            xlsx.text(rs.getString("project"));
+            xlsx.text(rs.getString("project_name"));
+            xlsx.text(rs.getString("task"));
+            xlsx.text(rs.getString("task_description"));
+            xlsx.number(hours(rs));
+            xlsx.bool(billable(rs));
+            xlsx.text(rs.getString("onsite_offshore"));
+            xlsx.text(rs.getString("billing_location"));
+            xlsx.text(rs.getString("leave_type"));
+            xlsx.text(rs.getString("status"));
+            xlsx.text(rs.getString("notes"));
+            xlsx.endRow();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            xlsx.close();
+        }
+    }
+}
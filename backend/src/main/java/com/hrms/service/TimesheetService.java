@@ -1,14 +1,21 @@
 package com.hrms.service;
 
+import com.hrms.dto.CursorPage;
 import com.hrms.dto.TimesheetDTO;
+import com.hrms.dto.WeeklyTimesheetSaveResult;
 import com.hrms.model.Employee;
 import com.hrms.model.Timesheet;
 import com.hrms.model.TimesheetStatus;
 import com.hrms.model.User;
+import com.hrms.repository.CompanyDetailRepository;
 import com.hrms.repository.EmployeeRepository;
 import com.hrms.repository.TimesheetRepository;
+import com.hrms.repository.TimesheetSpecifications;
 import com.hrms.repository.UserRepository;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.criteria.JpaOrder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,12 +23,28 @@ import org.springframework.web.server.ResponseStatusException;
 import com.hrms.repository.EmployeeReportingRepository;
 import com.hrms.model.EmployeeReporting;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import jakarta.persistence.PersistenceContext;
 
 @Service
@@ -43,23 +66,121 @@ public class TimesheetService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private CompanyDetailRepository companyDetailRepository;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Legacy list for the per-employee dashboards, newest first. Returns every matching row, as it always
+     * has, so callers should filter by employee or date. Use searchTimesheets to page.
+     */
+    @Transactional(readOnly = true)
     public List<TimesheetDTO> getAllTimesheets(Long employeeId, LocalDate fromDate, LocalDate toDate,
-            String status, Integer page, Integer size) {
-        TimesheetStatus statusEnum = status != null ? TimesheetStatus.valueOf(status.toUpperCase()) : null;
-
-        List<Timesheet> timesheets;
-        if (employeeId != null || fromDate != null || toDate != null || statusEnum != null) {
-            timesheets = timesheetRepository.findWithFilters(employeeId, fromDate, toDate, statusEnum);
-        } else {
-            timesheets = timesheetRepository.findAll();
+            String status) {
+        return findDTOs(filters(employeeId, fromDate, toDate, status), 0, null);
+    }
+
+    /**
+     * Keyset-paginated listing ordered by date then id, newest first. Each page is one indexed range scan
+     * no matter how deep the client has paged.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TimesheetDTO> searchTimesheets(Long employeeId, LocalDate fromDate, LocalDate toDate,
+            String status, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Specification<Timesheet> spec = filters(employeeId, fromDate, toDate, status);
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = decodeCursor(cursor);
+            LocalDate cursorDate = key[0].isEmpty() ? null : LocalDate.parse(key[0]);
+            spec = spec.and(TimesheetSpecifications.before(cursorDate, Long.valueOf(key[1])));
         }
 
-        return timesheets.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // One row past the page tells us whether another page exists without a count query
+        List<TimesheetDTO> rows = findDTOs(spec, 0, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TimesheetDTO last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getDate(), last.getId());
+        }
+        return new CursorPage<>(rows, nextCursor);
+    }
+
+    /**
+     * Runs the filter as a constructor projection ordered by date then id, newest first, with undated rows
+     * ahead of all dated ones. Only the DTO's columns and the employee name are selected, so no Timesheet
+     * or Employee entities are loaded.
+     */
+    private List<TimesheetDTO> findDTOs(Specification<Timesheet> spec, int offset, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TimesheetDTO> query = cb.createQuery(TimesheetDTO.class);
+        Root<Timesheet> t = query.from(Timesheet.class);
+        Join<Timesheet, Employee> e = t.join("employee");
+        query.select(cb.construct(TimesheetDTO.class,
+                t.get("id"), e.get("id"), e.get("firstName"), e.get("lastName"), t.get("date"),
+                t.get("startTime"), t.get("endTime"), t.get("totalHours"), t.get("project"), t.get("task"),
+                t.get("notes"), t.get("status"), t.get("managerComments"), t.get("onsiteOffshore"),
+                t.get("billingLocation"), t.get("billable"), t.get("projectName"), t.get("taskDescription"),
+                t.get("category"), t.get("leaveType")));
+        Predicate predicate = spec.toPredicate(t, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Explicit so the keyset cursor does not depend on the database's default null ordering
+        query.orderBy(((JpaOrder) cb.desc(t.get("date"))).nullPrecedence(NullPrecedence.FIRST), cb.desc(t.get("id")));
+
+        TypedQuery<TimesheetDTO> typed = entityManager.createQuery(query);
+        if (offset > 0) {
+            typed.setFirstResult(offset);
+        }
+        if (limit != null) {
+            typed.setMaxResults(limit);
+        }
+        return typed.getResultList();
+    }
+
+    private Specification<Timesheet> filters(Long employeeId, LocalDate fromDate, LocalDate toDate, String status) {
+        return Specification.where(TimesheetSpecifications.hasEmployee(employeeId))
+                .and(TimesheetSpecifications.hasStatus(parseStatus(status)))
+                .and(TimesheetSpecifications.onOrAfter(fromDate))
+                .and(TimesheetSpecifications.onOrBefore(toDate));
+    }
+
+    private static TimesheetStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) return null;
+        try {
+            return TimesheetStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid TimesheetStatus: " + status);
+        }
+    }
+
+    // An undated row is encoded with an empty date
+    private static String encodeCursor(LocalDate date, Long id) {
+        String raw = (date != null ? date.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] key = raw.split("\\|", -1);
+            if (!key[0].isEmpty()) {
+                LocalDate.parse(key[0]);
+            }
+            Long.valueOf(key[1]);
+            return key;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
     public TimesheetDTO getTimesheetById(Long id) {
@@ -218,62 +339,153 @@ public class TimesheetService {
         return convertToDTO(rejected);
     }
 
-    public void saveWeeklyTimesheet(Long employeeId, LocalDate weekStart, List<TimesheetDTO> entries) {
+    /**
+     * Reconciles the employee's week with the submitted grid. Incoming entries are matched to stored rows by id
+     * (only ids already in this employee-week count) and otherwise by date + category + project + task + leave type.
+     * Only changed rows are written: new ones inserted, edited ones updated and sent back to PENDING, missing ones
+     * deleted, all flushed together as JDBC batches. Untouched rows keep their id and review state.
+     */
+    public WeeklyTimesheetSaveResult saveWeeklyTimesheet(Long employeeId, LocalDate weekStart, List<TimesheetDTO> entries) {
         LocalDate weekEnd = weekStart.plusDays(6);
+        List<TimesheetDTO> incoming = entries != null ? entries : List.of();
+        System.out.println("[TimesheetService] Incoming entries count: " + incoming.size());
+
+        List<Timesheet> existing = timesheetRepository.findByEmployeeIdAndDateBetween(employeeId, weekStart, weekEnd);
+        Map<Long, Timesheet> existingById = new HashMap<>();
+        Map<String, Deque<Timesheet>> existingByKey = new HashMap<>();
+        for (Timesheet t : existing) {
+            existingById.put(t.getId(), t);
+            existingByKey.computeIfAbsent(rowKey(t.getDate(), t.getCategory(), t.getProject(), t.getTask(), t.getLeaveType()),
+                    k -> new ArrayDeque<>()).add(t);
+        }
 
-        // Bulk DELETE via @Modifying @Query — atomic, reliable, flushes & clears automatically
-        timesheetRepository.deleteByEmployeeIdAndDateBetween(employeeId, weekStart, weekEnd);
-
-        System.out.println("[TimesheetService] Deleted existing entries for employeeId=" + employeeId
-                + " weekStart=" + weekStart + " weekEnd=" + weekEnd);
-        System.out.println("[TimesheetService] Incoming entries count: " + (entries != null ? entries.size() : 0));
-
-        if (entries != null && !entries.isEmpty()) {
-            Employee employee = employeeRepository.findById(employeeId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
-
-            int savedCount = 0;
-            for (TimesheetDTO dto : entries) {
-                try {
-                    Timesheet timesheet = new Timesheet();
-                    timesheet.setEmployee(employee);
-                    timesheet.setDate(dto.getDate());
-                    timesheet.setStartTime(dto.getStartTime());
-                    timesheet.setEndTime(dto.getEndTime());
-                    timesheet.setProject(dto.getProject());
-                    timesheet.setTask(dto.getTask());
-                    timesheet.setNotes(dto.getNotes());
-                    timesheet.setStatus(TimesheetStatus.PENDING);
-                    timesheet.setOnsiteOffshore(dto.getOnsiteOffshore());
-                    timesheet.setBillingLocation(dto.getBillingLocation());
-                    timesheet.setBillable(dto.getBillable());
-                    timesheet.setProjectName(dto.getProjectName());
-                    timesheet.setTaskDescription(dto.getTaskDescription());
-                    timesheet.setCategory(dto.getCategory());
-                    timesheet.setLeaveType(dto.getLeaveType());
-                    // Use totalHours directly from DTO; only compute from times if not provided
-                    if (dto.getTotalHours() != null && dto.getTotalHours() > 0) {
-                        timesheet.setTotalHours(dto.getTotalHours());
-                    } else if (dto.getStartTime() != null && dto.getEndTime() != null) {
-                        Duration duration = Duration.between(dto.getStartTime(), dto.getEndTime());
-                        timesheet.setTotalHours(Math.max(0, duration.toMinutes() / 60.0));
+        WeeklyTimesheetSaveResult result = new WeeklyTimesheetSaveResult();
+        Set<Long> matchedIds = new HashSet<>();
+        List<Timesheet> toInsert = new ArrayList<>();
+        Employee employee = null;
+
+        for (TimesheetDTO dto : incoming) {
+            Timesheet match = dto.getId() != null ? existingById.get(dto.getId()) : null;
+            if (match == null || matchedIds.contains(match.getId())) {
+                Deque<Timesheet> candidates = existingByKey.getOrDefault(
+                        rowKey(dto.getDate(), dto.getCategory(), dto.getProject(), dto.getTask(), dto.getLeaveType()),
+                        new ArrayDeque<>());
+                match = null;
+                while (!candidates.isEmpty() && match == null) {
+                    Timesheet candidate = candidates.poll();
+                    if (!matchedIds.contains(candidate.getId())) {
+                        match = candidate;
                     }
-                    timesheetRepository.save(timesheet);
-                    savedCount++;
-                    System.out.println("[TimesheetService] Saved entry #" + savedCount
-                            + " date=" + dto.getDate() + " hours=" + dto.getTotalHours()
-                            + " category=" + dto.getCategory());
-                } catch (Exception e) {
-                    System.err.println("[TimesheetService] FAILED to save entry date=" + dto.getDate()
-                            + " hours=" + dto.getTotalHours() + " error=" + e.getMessage());
-                    throw e; // re-throw so transaction rolls back fully
                 }
             }
-            System.out.println("[TimesheetService] Total saved: " + savedCount + " entries");
 
-            // Send notification after all rows are saved
+            if (match == null) {
+                if (employee == null) {
+                    employee = employeeRepository.findById(employeeId)
+                            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employee not found"));
+                }
+                Timesheet timesheet = new Timesheet();
+                timesheet.setEmployee(employee);
+                timesheet.setStatus(TimesheetStatus.PENDING);
+                applyWeeklyEntry(timesheet, dto);
+                toInsert.add(timesheet);
+                continue;
+            }
+
+            matchedIds.add(match.getId());
+            if (applyWeeklyEntry(match, dto)) {
+                // An edited row needs a fresh review
+                match.setStatus(TimesheetStatus.PENDING);
+                match.setManagerComments(null);
+                match.setReviewedBy(null);
+                match.setReviewedAt(null);
+                match.setSubmittedAt(LocalDateTime.now());
+                result.add(rowResult(match, WeeklyTimesheetSaveResult.Action.UPDATED));
+            } else {
+                result.add(rowResult(match, WeeklyTimesheetSaveResult.Action.UNCHANGED));
+            }
+        }
+
+        List<Timesheet> toDelete = existing.stream()
+                .filter(t -> !matchedIds.contains(t.getId()))
+                .collect(Collectors.toList());
+
+        try {
+            timesheetRepository.saveAll(toInsert);
+            timesheetRepository.deleteAllInBatch(toDelete);
+            timesheetRepository.flush();
+        } catch (Exception e) {
+            System.err.println("[TimesheetService] FAILED to save weekly entries for employeeId=" + employeeId
+                    + " weekStart=" + weekStart + " error=" + e.getMessage());
+            throw e; // re-throw so transaction rolls back fully
+        }
+        toInsert.forEach(t -> result.add(rowResult(t, WeeklyTimesheetSaveResult.Action.CREATED)));
+        toDelete.forEach(t -> result.add(rowResult(t, WeeklyTimesheetSaveResult.Action.DELETED)));
+
+        System.out.println("[TimesheetService] Weekly save for employeeId=" + employeeId + " weekStart=" + weekStart
+                + ": " + result.getCreated() + " created, " + result.getUpdated() + " updated, "
+                + result.getUnchanged() + " unchanged, " + result.getDeleted() + " deleted");
+
+        // Send notification after all rows are saved, and only if the week actually changed
+        if (!incoming.isEmpty() && result.hasChanges()) {
             sendWeeklyTimesheetNotification(employeeId, weekStart);
         }
+        return result;
+    }
+
+    private String rowKey(LocalDate date, String category, String project, String task, String leaveType) {
+        return date + "|" + category + "|" + project + "|" + task + "|" + leaveType;
+    }
+
+    private WeeklyTimesheetSaveResult.RowResult rowResult(Timesheet t, WeeklyTimesheetSaveResult.Action action) {
+        return new WeeklyTimesheetSaveResult.RowResult(t.getId(), t.getDate(), t.getCategory(), t.getProject(),
+                t.getTask(), t.getLeaveType(), action);
+    }
+
+    // Copies the grid fields onto the row and reports whether any of them changed
+    private boolean applyWeeklyEntry(Timesheet timesheet, TimesheetDTO dto) {
+        // Use totalHours directly from DTO; only compute from times if not provided
+        Double totalHours = null;
+        if (dto.getTotalHours() != null && dto.getTotalHours() > 0) {
+            totalHours = dto.getTotalHours();
+        } else if (dto.getStartTime() != null && dto.getEndTime() != null) {
+            Duration duration = Duration.between(dto.getStartTime(), dto.getEndTime());
+            totalHours = Math.max(0, duration.toMinutes() / 60.0);
+        }
+
+        boolean changed = !Objects.equals(timesheet.getDate(), dto.getDate())
+                || !Objects.equals(timesheet.getStartTime(), dto.getStartTime())
+                || !Objects.equals(timesheet.getEndTime(), dto.getEndTime())
+                || !Objects.equals(timesheet.getTotalHours(), totalHours)
+                || !Objects.equals(timesheet.getProject(), dto.getProject())
+                || !Objects.equals(timesheet.getTask(), dto.getTask())
+                || !Objects.equals(timesheet.getNotes(), dto.getNotes())
+                || !Objects.equals(timesheet.getOnsiteOffshore(), dto.getOnsiteOffshore())
+                || !Objects.equals(timesheet.getBillingLocation(), dto.getBillingLocation())
+                || !Objects.equals(timesheet.getBillable(), dto.getBillable())
+                || !Objects.equals(timesheet.getProjectName(), dto.getProjectName())
+                || !Objects.equals(timesheet.getTaskDescription(), dto.getTaskDescription())
+                || !Objects.equals(timesheet.getCategory(), dto.getCategory())
+                || !Objects.equals(timesheet.getLeaveType(), dto.getLeaveType());
+        if (!changed) {
+            return false;
+        }
+
+        timesheet.setDate(dto.getDate());
+        timesheet.setStartTime(dto.getStartTime());
+        timesheet.setEndTime(dto.getEndTime());
+        timesheet.setTotalHours(totalHours);
+        timesheet.setProject(dto.getProject());
+        timesheet.setTask(dto.getTask());
+        timesheet.setNotes(dto.getNotes());
+        timesheet.setOnsiteOffshore(dto.getOnsiteOffshore());
+        timesheet.setBillingLocation(dto.getBillingLocation());
+        timesheet.setBillable(dto.getBillable());
+        timesheet.setProjectName(dto.getProjectName());
+        timesheet.setTaskDescription(dto.getTaskDescription());
+        timesheet.setCategory(dto.getCategory());
+        timesheet.setLeaveType(dto.getLeaveType());
+        return true;
     }
 
     private void sendWeeklyTimesheetNotification(Long employeeId, LocalDate weekStart) {
@@ -292,9 +504,14 @@ public class TimesheetService {
 
             System.out.println("[Notification] EmployeeReporting found: " + (reporting != null));
 
+            List<String> digestRecipients = new java.util.ArrayList<>();
+
             // Notify RM
             if (reporting != null && reporting.getReportingManager() != null) {
                 Employee rm = reporting.getReportingManager();
+                companyDetailRepository.findByEmployee_Id(rm.getId())
+                        .map(cd -> cd.getOryfolksMailId())
+                        .ifPresent(digestRecipients::add);
                 System.out.println("[Notification] RM: " + rm.getFirstName() + ", User: " + (rm.getUser() != null ? rm.getUser().getId() : "NULL"));
                 if (rm.getUser() != null) {
                     notificationService.createNotification(
@@ -315,6 +532,7 @@ public class TimesheetService {
             System.out.println("[Notification] HR users count: " + hrUsers.size());
             for (User hr : hrUsers) {
                 notificationService.createNotification(hr.getId(), "New Timesheet Submission", message, "TIMESHEET", null);
+                if (hr.getEmail() != null) digestRecipients.add(hr.getEmail());
                 System.out.println("[Notification] ✓ Notified HR userId=" + hr.getId());
             }
 
@@ -323,8 +541,15 @@ public class TimesheetService {
             System.out.println("[Notification] Admin users count: " + adminUsers.size());
             for (User admin : adminUsers) {
                 notificationService.createNotification(admin.getId(), "New Timesheet Submission", message, "TIMESHEET", null);
+                if (admin.getEmail() != null) digestRecipients.add(admin.getEmail());
                 System.out.println("[Notification] ✓ Notified Admin userId=" + admin.getId());
             }
+
+            // Only recipients on an email digest get these; everyone else relies on the in-app notification
+            if (!digestRecipients.isEmpty()) {
+                emailService.sendTimesheetSubmittedEmail(digestRecipients.stream().distinct().toArray(String[]::new),
+                        employeeName, weekStart.toString());
+            }
         } catch (Exception e) {
             System.err.println("[Notification] ✗ Failed to send weekly timesheet notifications: " + e.getMessage());
             e.printStackTrace();
@@ -332,11 +557,9 @@ public class TimesheetService {
     }
 
 
+    @Transactional(readOnly = true)
     public List<TimesheetDTO> getTeamTimesheets(Long managerId) {
-        List<Timesheet> timesheets = timesheetRepository.findByManagerId(managerId);
-        return timesheets.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return timesheetRepository.findDTOsByManagerId(managerId);
     }
 
     private TimesheetDTO convertToDTO(Timesheet timesheet) {
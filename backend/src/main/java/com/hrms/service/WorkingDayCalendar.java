@@ -0,0 +1,117 @@
+package com.hrms.service;
+
+import com.hrms.model.Holiday;
+import com.hrms.repository.HolidayRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weekend and public-holiday lookups backed by per-year bitsets with prefix sums.
+ * "Working days between A and B" is answered in O(1) per calendar year touched.
+ * The holiday table is read once at startup and again only when HolidayService changes it.
+ */
+@Component
+public class WorkingDayCalendar {
+
+    @Autowired
+    private HolidayRepository holidayRepository;
+
+    // Replaced wholesale on rebuild so readers never mix old and new holiday data
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
+
+    private static final class Snapshot {
+        final Map<Integer, BitSet> holidaysByYear;
+        final Map<Integer, YearCalendar> years = new ConcurrentHashMap<>();
+
+        Snapshot(Map<Integer, BitSet> holidaysByYear) {
+            this.holidaysByYear = holidaysByYear;
+        }
+    }
+
+    private static final class YearCalendar {
+        final BitSet holidays;
+        // workingPrefix[i] = number of working days among the first i days of the year
+        final int[] workingPrefix;
+
+        YearCalendar(int year, BitSet holidays) {
+            this.holidays = holidays;
+            LocalDate first = LocalDate.of(year, 1, 1);
+            int length = first.lengthOfYear();
+            this.workingPrefix = new int[length + 1];
+            for (int i = 0; i < length; i++) {
+                DayOfWeek dow = first.plusDays(i).getDayOfWeek();
+                boolean working = dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY && !holidays.get(i);
+                workingPrefix[i + 1] = workingPrefix[i] + (working ? 1 : 0);
+            }
+        }
+
+        boolean isWorking(int dayIndex) {
+            return workingPrefix[dayIndex + 1] > workingPrefix[dayIndex];
+        }
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        Map<Integer, BitSet> loaded = new HashMap<>();
+        for (Holiday holiday : holidayRepository.findAll()) {
+            LocalDate date = parse(holiday.getHolidayDate());
+            if (date != null) {
+                loaded.computeIfAbsent(date.getYear(), y -> new BitSet(366)).set(date.getDayOfYear() - 1);
+            }
+        }
+        snapshot = new Snapshot(loaded);
+        System.out.println("[WorkingDayCalendar] Loaded holidays for " + loaded.size() + " years");
+    }
+
+    private YearCalendar year(int year) {
+        Snapshot current = snapshot;
+        return current.years.computeIfAbsent(year,
+                y -> new YearCalendar(y, current.holidaysByYear.getOrDefault(y, new BitSet(0))));
+    }
+
+    public boolean isWeekend(LocalDate date) {
+        DayOfWeek dow = date.getDayOfWeek();
+        return dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY;
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return year(date.getYear()).holidays.get(date.getDayOfYear() - 1);
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return year(date.getYear()).isWorking(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Number of working days (not weekend, not holiday) in the inclusive range [start, end].
+     */
+    public int workingDaysBetween(LocalDate start, LocalDate end) {
+        if (start == null || end == null || end.isBefore(start)) return 0;
+        int total = 0;
+        for (int y = start.getYear(); y <= end.getYear(); y++) {
+            YearCalendar cal = year(y);
+            int from = y == start.getYear() ? start.getDayOfYear() - 1 : 0;
+            int to = y == end.getYear() ? end.getDayOfYear() : cal.workingPrefix.length - 1;
+            total += cal.workingPrefix[to] - cal.workingPrefix[from];
+        }
+        return total;
+    }
+
+    private LocalDate parse(String value) {
+        if (value == null) return null;
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
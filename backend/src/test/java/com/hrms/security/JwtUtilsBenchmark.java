@@ -0,0 +1,83 @@
+package com.hrms.security;
+
+import com.hrms.model.Role;
+import com.hrms.model.User;
+import com.hrms.model.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token verification cost: one parse with the parser JwtUtils builds once, against the
+ * old filter path that parsed twice and derived the key and built a parser for each parse.
+ * Not part of the test run; start it with {@code mvn test-compile} and then {@link #main} from the IDE or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main JwtUtilsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String secret;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        secret = (String) ReflectionTestUtils.getField(jwtUtils, "jwtSecret");
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark.user");
+        user.setRole(Role.EMPLOYEE);
+        UserPrincipal principal = new UserPrincipal(user);
+        token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()), 7L);
+    }
+
+    @Benchmark
+    public Claims cachedParser() {
+        return jwtUtils.parseVerifiedClaims(token);
+    }
+
+    // What AuthTokenFilter did per request before: validateJwtToken, then getUserNameFromJwtToken,
+    // each deriving the key, building a parser and verifying the signature again
+    @Benchmark
+    public String perCallKeyDerivation() {
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+                .build()
+                .parse(token);
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
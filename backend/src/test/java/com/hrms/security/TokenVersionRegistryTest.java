@@ -0,0 +1,91 @@
+package com.hrms.security;
+
+import com.hrms.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private TokenVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "maxSize", 100L);
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 0L);
+        when(userRepository.findAllTokenVersions()).thenReturn(List.<Object[]>of(new Object[] { 1L, 3 }));
+        registry.load();
+    }
+
+    @Test
+    void userCreatedAfterStartupIsLookedUp() {
+        when(userRepository.findTokenVersionById(2L)).thenReturn(Optional.of(0));
+
+        assertTrue(registry.isCurrent(2L, 0));
+    }
+
+    @Test
+    void revocationOnAnotherNodeIsSeenOnceTheEntryExpires() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(4));
+
+        assertFalse(registry.isCurrent(1L, 3));
+        assertTrue(registry.isCurrent(1L, 4));
+    }
+
+    @Test
+    void deletedUserIsRejected() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(registry.isCurrent(1L, 3));
+    }
+
+    @Test
+    void cachedEntryAnswersWithoutALookupWithinTheTtl() {
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 60L);
+        registry.load();
+
+        assertTrue(registry.isCurrent(1L, 3));
+        assertFalse(registry.isCurrent(1L, 2));
+        verify(userRepository, times(0)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void newerTokenThanTheCachedVersionIsCheckedAgainstTheTable() {
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 60L);
+        registry.load();
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(4));
+
+        assertTrue(registry.isCurrent(1L, 4));
+        assertTrue(registry.isCurrent(1L, 4));
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void forgottenUserIsRejectedWithoutALookup() {
+        ReflectionTestUtils.setField(registry, "ttlSeconds", 60L);
+        registry.load();
+
+        registry.forget(1L);
+
+        assertFalse(registry.isCurrent(1L, 3));
+        verify(userRepository, times(0)).findTokenVersionById(1L);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hrms.service;
+
+import com.hrms.model.EmailDigestItem;
+import com.hrms.model.EmailDigestPreference;
+import com.hrms.repository.EmailDigestItemRepository;
+import com.hrms.repository.EmailDigestPreferenceRepository;
+import com.hrms.support.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs flushDue against the real digest tables on H2, including the SKIP LOCKED claim.
+ */
+class EmailDigestServiceTest {
+
+    private static final String RECIPIENT = "rm@example.com";
+
+    private TestDatabase db;
+    private EmailDigestItemRepository itemRepository;
+    private EmailDigestPreferenceRepository preferenceRepository;
+    private EmailOutboxService outbox;
+    private EmailDigestService digestService;
+
+    @BeforeEach
+    void setUp() {
+        db = new TestDatabase(Map.of());
+        itemRepository = db.repository(EmailDigestItemRepository.class);
+        preferenceRepository = db.repository(EmailDigestPreferenceRepository.class);
+        outbox = mock(EmailOutboxService.class);
+        digestService = new EmailDigestService();
+        ReflectionTestUtils.setField(digestService, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(digestService, "preferenceRepository", preferenceRepository);
+        ReflectionTestUtils.setField(digestService, "emailOutboxService", outbox);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void recipientIsDueOnceTheOldestItemHasWaitedOutTheInterval() {
+        preference(60, null);
+        item(LocalDateTime.now().minusMinutes(61));
+        item(LocalDateTime.now().minusMinutes(5));
+
+        flush();
+
+        verify(outbox).enqueue(any(), isNull(), eq("HRMS Digest: 2 submission(s) awaiting review"), any());
+        assertEquals(0, itemRepository.count());
+        assertNotNull(preferenceRepository.findByEmail(RECIPIENT).orElseThrow().getLastSentAt());
+    }
+
+    // Timing from the last send would flush a single fresh item straight away after a quiet period
+    @Test
+    void freshItemWaitsForTheIntervalEvenLongAfterTheLastDigest() {
+        preference(60, LocalDateTime.now().minusDays(3));
+        item(LocalDateTime.now().minusMinutes(5));
+
+        flush();
+
+        verify(outbox, never()).enqueue(any(), any(), any(), any());
+        assertEquals(1, itemRepository.count());
+    }
+
+    @Test
+    void itemsWithoutAPreferenceAreSentRightAway() {
+        item(LocalDateTime.now());
+
+        flush();
+
+        verify(outbox).enqueue(any(), isNull(), startsWith("HRMS Digest: 1 "), any());
+        assertEquals(0, itemRepository.count());
+    }
+
+    @Test
+    void concurrentFlushSkipsItemsAnotherInstanceHasClaimed() throws Exception {
+        item(LocalDateTime.now().minusMinutes(1));
+        item(LocalDateTime.now());
+
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstClaimed.countDown();
+            assertTrue(releaseFirst.await(10, TimeUnit.SECONDS));
+            return null;
+        }).when(outbox).enqueue(any(), any(), any(), any());
+
+        // The first flush holds the row locks while it is inside enqueue
+        CompletableFuture<Void> first = CompletableFuture.runAsync(this::flush);
+        assertTrue(firstClaimed.await(10, TimeUnit.SECONDS));
+
+        flush();
+        verify(outbox, times(1)).enqueue(any(), any(), any(), any());
+
+        releaseFirst.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        verify(outbox, times(1)).enqueue(any(), any(), any(), any());
+        assertEquals(0, itemRepository.count());
+    }
+
+    private void flush() {
+        db.transactionTemplate().executeWithoutResult(status -> digestService.flushDue());
+    }
+
+    private void preference(int intervalMinutes, LocalDateTime lastSentAt) {
+        db.transactionTemplate().executeWithoutResult(status -> preferenceRepository.save(EmailDigestPreference.builder()
+                .email(RECIPIENT)
+                .intervalMinutes(intervalMinutes)
+                .lastSentAt(lastSentAt)
+                .build()));
+    }
+
+    private void item(LocalDateTime createdAt) {
+        db.transactionTemplate().executeWithoutResult(status -> itemRepository.save(EmailDigestItem.builder()
+                .recipient(RECIPIENT)
+                .title("Leave Request Submitted: Jane Doe")
+                .details("Casual leave, 2 days")
+                .createdAt(createdAt)
+                .build()));
+    }
+}
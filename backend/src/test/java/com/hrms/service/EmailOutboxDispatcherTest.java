@@ -0,0 +1,242 @@
+package com.hrms.service;
+
+import com.hrms.model.EmailOutbox;
+import com.hrms.model.OutboxStatus;
+import com.hrms.repository.EmailOutboxRepository;
+import com.hrms.support.TestDatabase;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the outbox end to end: rows in H2 through the real EmailOutboxService transactions,
+ * delivery over SMTP to GreenMail, or to a port nobody listens on for the failure paths.
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_BASE_SECONDS = 30;
+    private static final long LEASE_SECONDS = 300;
+
+    private TestDatabase db;
+    private EmailOutboxRepository repository;
+    private EmailOutboxService outboxService;
+    private EmailService emailService;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        db = new TestDatabase(Map.of());
+        repository = db.repository(EmailOutboxRepository.class);
+
+        EmailOutboxService service = new EmailOutboxService();
+        ReflectionTestUtils.setField(service, "emailOutboxRepository", repository);
+        ReflectionTestUtils.setField(service, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(service, "backoffBaseSeconds", BACKOFF_BASE_SECONDS);
+        ReflectionTestUtils.setField(service, "backoffMaxSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "leaseSeconds", LEASE_SECONDS);
+        outboxService = db.transactional(service);
+
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "fromEmail", "hr@example.com");
+        ReflectionTestUtils.setField(emailService, "emailOutboxService", outboxService);
+        smtpAt(ServerSetupTest.SMTP.getPort());
+
+        dispatcher = new EmailOutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "emailOutboxService", outboxService);
+        ReflectionTestUtils.setField(dispatcher, "emailService", emailService);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void dueMessageIsClaimedAndDelivered() throws Exception {
+        Long id = enqueue();
+
+        dispatcher.dispatch();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage received = greenMail.getReceivedMessages()[0];
+        assertEquals("Leave Request Approved", received.getSubject());
+        assertEquals("jane@example.com", received.getAllRecipients()[0].toString());
+
+        EmailOutbox message = load(id);
+        assertEquals(OutboxStatus.SENT, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getSentAt());
+        assertNull(message.getLastError());
+    }
+
+    @Test
+    void failedSendIsRetriedWithExponentialBackoff() throws Exception {
+        Long id = enqueue();
+        smtpAt(closedPort());
+
+        dispatcher.dispatch();
+
+        EmailOutbox afterFirst = load(id);
+        assertEquals(OutboxStatus.PENDING, afterFirst.getStatus());
+        assertEquals(1, afterFirst.getAttempts());
+        assertNotNull(afterFirst.getLastError());
+        assertDueIn(afterFirst, BACKOFF_BASE_SECONDS);
+
+        // Not due yet: the next poll leaves it alone
+        dispatcher.dispatch();
+        assertEquals(1, load(id).getAttempts());
+
+        makeDue(id);
+        dispatcher.dispatch();
+        assertDueIn(load(id), BACKOFF_BASE_SECONDS * 2);
+
+        // SMTP is back: the retry goes through
+        smtpAt(ServerSetupTest.SMTP.getPort());
+        makeDue(id);
+        dispatcher.dispatch();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        EmailOutbox sent = load(id);
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertEquals(3, sent.getAttempts());
+        assertNull(sent.getLastError());
+    }
+
+    @Test
+    void messageIsDeadLetteredAfterMaxAttempts() throws Exception {
+        Long id = enqueue();
+        smtpAt(closedPort());
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            makeDue(id);
+            dispatcher.dispatch();
+        }
+
+        EmailOutbox dead = load(id);
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(MAX_ATTEMPTS, dead.getAttempts());
+        assertNotNull(dead.getLastError());
+
+        // DEAD rows are never claimed again, even once SMTP works
+        smtpAt(ServerSetupTest.SMTP.getPort());
+        makeDue(id);
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.DEAD, load(id).getStatus());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    // A dispatcher that died mid-send leaves the row SENDING; it is picked up again once the lease runs out
+    @Test
+    void abandonedSendIsReclaimedOnlyAfterTheLeaseExpires() throws Exception {
+        Long id = enqueue();
+        List<EmailOutbox> claimed = outboxService.claimDue(20);
+        assertEquals(1, claimed.size());
+
+        EmailOutbox leased = load(id);
+        assertEquals(OutboxStatus.SENDING, leased.getStatus());
+        assertDueIn(leased, LEASE_SECONDS);
+
+        dispatcher.dispatch();
+        assertEquals(OutboxStatus.SENDING, load(id).getStatus());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+
+        makeDue(id);
+        dispatcher.dispatch();
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        EmailOutbox sent = load(id);
+        assertEquals(OutboxStatus.SENT, sent.getStatus());
+        assertEquals(2, sent.getAttempts());
+    }
+
+    // Two instances polling at once: rows locked by one claim are skipped by the other
+    @Test
+    void concurrentClaimSkipsLockedRows() throws Exception {
+        Long id = enqueue();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() ->
+                db.transactionTemplate().executeWithoutResult(status -> {
+                    assertEquals(1, repository.lockDue(LocalDateTime.now(), 20).size());
+                    locked.countDown();
+                    try {
+                        assertTrue(release.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        assertTrue(outboxService.claimDue(20).isEmpty());
+
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+        assertEquals(1, outboxService.claimDue(20).size());
+        assertEquals(OutboxStatus.SENDING, load(id).getStatus());
+    }
+
+    private Long enqueue() {
+        return outboxService.enqueue(new String[] { "jane@example.com" }, null,
+                "Leave Request Approved", "Your leave was approved.").getId();
+    }
+
+    private EmailOutbox load(Long id) {
+        return repository.findById(id).orElseThrow();
+    }
+
+    private void makeDue(Long id) {
+        db.transactionTemplate().executeWithoutResult(status ->
+                db.entityManager().find(EmailOutbox.class, id).setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+    }
+
+    private void assertDueIn(EmailOutbox message, long seconds) {
+        Duration until = Duration.between(LocalDateTime.now(), message.getNextAttemptAt());
+        assertTrue(until.getSeconds() > seconds - 10 && until.getSeconds() <= seconds,
+                "next attempt in " + until + ", expected about " + seconds + "s");
+    }
+
+    private void smtpAt(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        sender.setPort(port);
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", "2000");
+        props.put("mail.smtp.timeout", "2000");
+        sender.setJavaMailProperties(props);
+        ReflectionTestUtils.setField(emailService, "mailSender", sender);
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
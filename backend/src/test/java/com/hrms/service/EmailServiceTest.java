@@ -0,0 +1,71 @@
+package com.hrms.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Runs EmailService against GreenMail, so mail actually goes over SMTP without a real mail host.
+ */
+class EmailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxService outbox;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+
+        outbox = mock(EmailOutboxService.class);
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", sender);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "hr@example.com");
+        ReflectionTestUtils.setField(emailService, "emailOutboxService", outbox);
+    }
+
+    @Test
+    void otpEmailIsSentDirectlyAndNeverQueued() throws Exception {
+        emailService.sendOtpEmail("jane@example.com", "482913");
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("jane@example.com", received[0].getAllRecipients()[0].toString());
+        assertTrue(GreenMailUtil.getBody(received[0]).contains("Your OTP for password reset is: 482913"));
+        verifyNoInteractions(outbox);
+    }
+
+    @Test
+    void regularEmailGoesThroughTheOutbox() {
+        emailService.sendEmail(new String[] { "jane@example.com" }, null, "Subject", "Body");
+
+        verify(outbox).enqueue(any(), any(), any(), any());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void emailWithoutRecipientsIsDropped() {
+        emailService.sendEmail(new String[0], null, "Subject", "Body");
+
+        verify(outbox, never()).enqueue(any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,36 @@
+package com.hrms.service;
+
+import com.hrms.model.LeaveType;
+import com.hrms.repository.LeaveBalanceRepository;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveBalanceServiceTest {
+
+    @Mock
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Mock
+    private LeaveLedgerService leaveLedgerService;
+
+    @InjectMocks
+    private LeaveBalanceService leaveBalanceService;
+
+    // A negative deduction would drive "used" down and credit days
+    @ParameterizedTest
+    @ValueSource(doubles = { 0.0, -1.0, -12.5 })
+    void tryDeductRefusesNonPositiveDays(double days) {
+        for (LeaveType type : LeaveType.values()) {
+            assertFalse(leaveBalanceService.tryDeduct(7L, type, days, 99L));
+        }
+        verifyNoInteractions(leaveBalanceRepository, leaveLedgerService);
+    }
+}
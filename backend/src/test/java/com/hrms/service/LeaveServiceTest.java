@@ -0,0 +1,57 @@
+package com.hrms.service;
+
+import com.hrms.dto.LeaveDTO;
+import com.hrms.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private LeaveBalanceService leaveBalanceService;
+
+    @InjectMocks
+    private LeaveService leaveService;
+
+    @ParameterizedTest
+    @ValueSource(doubles = { 0.0, -0.5, -3.0 })
+    void createLeaveRejectsNonPositiveDays(double days) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> leaveService.createLeave(request(days)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(employeeRepository, leaveBalanceService);
+    }
+
+    @Test
+    void createLeaveRejectsMissingDays() {
+        LeaveDTO dto = request(1.0);
+        dto.setDaysCount(null);
+
+        assertThrows(ResponseStatusException.class, () -> leaveService.createLeave(dto));
+        verifyNoInteractions(employeeRepository, leaveBalanceService);
+    }
+
+    private static LeaveDTO request(double days) {
+        LeaveDTO dto = new LeaveDTO();
+        dto.setEmployeeId(1L);
+        dto.setLeaveType("CASUAL");
+        dto.setDaysCount(days);
+        return dto;
+    }
+}
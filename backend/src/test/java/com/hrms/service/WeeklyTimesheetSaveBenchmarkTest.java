@@ -0,0 +1,129 @@
+package com.hrms.service;
+
+import com.hrms.dto.TimesheetDTO;
+import com.hrms.dto.WeeklyTimesheetSaveResult;
+import com.hrms.model.Employee;
+import com.hrms.repository.CompanyDetailRepository;
+import com.hrms.repository.EmployeeReportingRepository;
+import com.hrms.repository.EmployeeRepository;
+import com.hrms.repository.TimesheetRepository;
+import com.hrms.repository.UserRepository;
+import com.hrms.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the JDBC round trips of a weekly timesheet save, with statement batching off (one statement
+ * per row, as before) and with the batch settings from application.properties. Runs on H2, so the
+ * counts are what Hibernate sends rather than Postgres timings, but those are what the batching changes.
+ */
+class WeeklyTimesheetSaveBenchmarkTest {
+
+    private static final LocalDate WEEK_START = LocalDate.of(2026, 3, 2);
+    private static final int DAYS = 5;
+    private static final int ROWS_PER_DAY = 8;
+
+    private static final Map<String, String> UNBATCHED = Map.of("hibernate.jdbc.batch_size", "1");
+    private static final Map<String, String> BATCHED = Map.of(
+            "hibernate.jdbc.batch_size", "50",
+            "hibernate.order_inserts", "true",
+            "hibernate.order_updates", "true");
+
+    @Test
+    void batchedSaveOfAFullWeekNeedsAFractionOfTheRoundTrips() {
+        RoundTrips before = measure(UNBATCHED);
+        RoundTrips after = measure(BATCHED);
+
+        System.out.println("[WeeklyTimesheetSaveBenchmark] " + DAYS * ROWS_PER_DAY + " rows, unbatched: "
+                + before.insert + " round trips to insert, " + before.update + " to update");
+        System.out.println("[WeeklyTimesheetSaveBenchmark] " + DAYS * ROWS_PER_DAY + " rows, batched: "
+                + after.insert + " round trips to insert, " + after.update + " to update");
+
+        // One INSERT / UPDATE per row without batching
+        assertTrue(before.insert >= DAYS * ROWS_PER_DAY, "unbatched insert round trips: " + before.insert);
+        assertTrue(before.update >= DAYS * ROWS_PER_DAY, "unbatched update round trips: " + before.update);
+        // Week lookup, employee lookup, one id sequence call and one insert batch
+        assertTrue(after.insert <= 5, "batched insert round trips: " + after.insert);
+        // Week lookup and one update batch
+        assertTrue(after.update <= 3, "batched update round trips: " + after.update);
+    }
+
+    private RoundTrips measure(Map<String, String> jpaProperties) {
+        try (TestDatabase db = new TestDatabase(jpaProperties)) {
+            TimesheetService service = timesheetService(db);
+            Long employeeId = db.transactionTemplate().execute(status -> {
+                Employee employee = employee();
+                db.entityManager().persist(employee);
+                return employee.getId();
+            });
+
+            RoundTrips roundTrips = new RoundTrips();
+            db.resetRoundTrips();
+            WeeklyTimesheetSaveResult created = db.transactionTemplate().execute(status ->
+                    service.saveWeeklyTimesheet(employeeId, WEEK_START, week("Initial")));
+            roundTrips.insert = db.roundTrips();
+            assertEquals(DAYS * ROWS_PER_DAY, created.getCreated());
+
+            db.resetRoundTrips();
+            WeeklyTimesheetSaveResult updated = db.transactionTemplate().execute(status ->
+                    service.saveWeeklyTimesheet(employeeId, WEEK_START, week("Revised")));
+            roundTrips.update = db.roundTrips();
+            assertEquals(DAYS * ROWS_PER_DAY, updated.getUpdated());
+            return roundTrips;
+        }
+    }
+
+    private TimesheetService timesheetService(TestDatabase db) {
+        TimesheetService service = new TimesheetService();
+        ReflectionTestUtils.setField(service, "timesheetRepository", db.repository(TimesheetRepository.class));
+        ReflectionTestUtils.setField(service, "employeeRepository", db.repository(EmployeeRepository.class));
+        // Only reached by the notification after the save, which is not being measured
+        ReflectionTestUtils.setField(service, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(service, "employeeReportingRepository", mock(EmployeeReportingRepository.class));
+        ReflectionTestUtils.setField(service, "notificationService", mock(NotificationService.class));
+        ReflectionTestUtils.setField(service, "emailService", mock(EmailService.class));
+        ReflectionTestUtils.setField(service, "companyDetailRepository", mock(CompanyDetailRepository.class));
+        return service;
+    }
+
+    private static List<TimesheetDTO> week(String notes) {
+        List<TimesheetDTO> entries = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            for (int row = 0; row < ROWS_PER_DAY; row++) {
+                TimesheetDTO dto = new TimesheetDTO();
+                dto.setDate(WEEK_START.plusDays(day));
+                dto.setProject("Project " + row);
+                dto.setTask("Task " + row);
+                dto.setTotalHours(1.0);
+                dto.setNotes(notes);
+                entries.add(dto);
+            }
+        }
+        return entries;
+    }
+
+    private static Employee employee() {
+        Employee employee = new Employee();
+        employee.setFirstName("Bench");
+        employee.setLastName("Mark");
+        employee.setEmail("bench.mark@example.com");
+        employee.setPhoneNumber("9000000000");
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        employee.setGender("Other");
+        return employee;
+    }
+
+    private static class RoundTrips {
+        int insert;
+        int update;
+    }
+}
@@ -0,0 +1,145 @@
+package com.hrms.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory H2 database (PostgreSQL mode) with the real entity mappings, for tests that need JPA
+ * without the Spring context or a Postgres server. Every JDBC execute call is counted, so a test can
+ * assert how many statement round trips a service method costs.
+ */
+public class TestDatabase implements AutoCloseable {
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final JpaRepositoryFactory repositoryFactory;
+    private final JpaTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param jpaProperties Hibernate settings on top of the schema defaults, e.g. the batch size under test
+     */
+    public TestDatabase(Map<String, String> jpaProperties) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Same column names Spring Boot derives in the application
+        properties.put("hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy");
+        properties.putAll(jpaProperties);
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(new CountingDataSource(h2));
+        factoryBean.setPackagesToScan("com.hrms.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        repositoryFactory = new JpaRepositoryFactory(entityManager);
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T repository(Class<T> repositoryInterface) {
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    /**
+     * Proxies a service so its @Transactional methods, including REQUIRES_NEW, run against this
+     * database the way they do in the application context.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T transactional(T service) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (T) proxyFactory.getProxy();
+    }
+
+    public EntityManager entityManager() {
+        return entityManager;
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return transactionTemplate;
+    }
+
+    /** Statements executed since the last reset; a JDBC batch counts once, like on the wire. */
+    public int roundTrips() {
+        return roundTrips.get();
+    }
+
+    public void resetRoundTrips() {
+        roundTrips.set(0);
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.close();
+    }
+
+    private class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(JdbcDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return (Connection) countingProxy(Connection.class, super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return (Connection) countingProxy(Connection.class, super.getConnection(username, password));
+        }
+    }
+
+    // Wraps statements handed out by the connection and counts every execute* call on them
+    private Object countingProxy(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                roundTrips.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result != null && Statement.class.isAssignableFrom(returnType)) {
+                return countingProxy(returnType, result);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -5,6 +5,7 @@ import AdminSidebar from "../../components/AdminSidebar";
 import WeeklyTimesheetGrid from "../employee/timesheet/WeeklyTimesheetGrid";
 import { toast } from "react-toastify";
 import { Search, Filter, Clock } from "lucide-react";
+import { WEEKS_PER_LOAD, weekStartWeeksAgo, weeksBefore, dayBefore, fetchTimesheetRange } from "../../utils/timesheetRange";
 
 export default function AdminTimesheets() {
     const [activeTab, setActiveTab] = useState("timesheets");
@@ -17,6 +18,9 @@ export default function AdminTimesheets() {
     const [tsSubView, setTsSubView] = useState('summary'); // 'summary' or 'grid'
     const [selectedWeek, setSelectedWeek] = useState(null);
     const [groupedWeeks, setGroupedWeeks] = useState([]);
+    // Earliest week loaded so far; older weeks are fetched on demand
+    const [loadedFrom, setLoadedFrom] = useState(() => weekStartWeeksAgo(WEEKS_PER_LOAD - 1));
+    const [loadingEarlier, setLoadingEarlier] = useState(false);
     const navigate = useNavigate();
 
     useEffect(() => {
@@ -42,21 +46,9 @@ export default function AdminTimesheets() {
                 setEmployees(empList);
             }
 
-            const tsRes = await fetch("http://localhost:8080/api/timesheets?size=10000", {
-                headers,
-                credentials: "include"
-            });
-
-            if (tsRes.ok) {
-                const tsJson = await tsRes.json();
-                const allTs = tsJson.data || tsJson || [];
-
-                if (Array.isArray(allTs)) {
-                    setTimesheets(allTs);
-                    const grouped = groupIntoWeeks(allTs);
-                    setGroupedWeeks(grouped);
-                }
-            }
+            const allTs = await fetchTimesheetRange(loadedFrom);
+            setTimesheets(allTs);
+            setGroupedWeeks(groupIntoWeeks(allTs));
         } catch (err) {
             console.error("Error fetching data", err);
         } finally {
@@ -64,6 +56,23 @@ export default function AdminTimesheets() {
         }
     };
 
+    const loadEarlierWeeks = async () => {
+        try {
+            setLoadingEarlier(true);
+            const from = weeksBefore(loadedFrom, WEEKS_PER_LOAD);
+            const earlier = await fetchTimesheetRange(from, dayBefore(loadedFrom));
+            const allTs = [...timesheets, ...earlier];
+            setTimesheets(allTs);
+            setGroupedWeeks(groupIntoWeeks(allTs));
+            setLoadedFrom(from);
+        } catch (err) {
+            console.error("Error fetching earlier timesheets", err);
+            toast.error("Failed to load earlier weeks");
+        } finally {
+            setLoadingEarlier(false);
+        }
+    };
+
     const groupIntoWeeks = (data) => {
         const weeksMap = {};
 
@@ -404,6 +413,17 @@ export default function AdminTimesheets() {
                                             </div>
                                         ))
                                     )}
+                                    {!loading && (
+                                        <div className="flex justify-center">
+                                            <button
+                                                onClick={loadEarlierWeeks}
+                                                disabled={loadingEarlier}
+                                                className="px-6 py-3 bg-white text-brand-blue font-black text-[10px] uppercase tracking-widest rounded-2xl border border-brand-blue/10 shadow-sm hover:shadow-xl active:scale-95 transition-all disabled:opacity-50"
+                                            >
+                                                {loadingEarlier ? "Loading..." : `Load ${WEEKS_PER_LOAD} earlier weeks`}
+                                            </button>
+                                        </div>
+                                    )}
                                 </div>
                             </>
                         ) : (
@@ -9,6 +9,7 @@ import Sidebar from "../../components/Sidebar";
 import WeeklyTimesheetGrid from "../employee/timesheet/WeeklyTimesheetGrid";
 import { getHrNavItems } from "../../utils/hrNav";
 import { toast } from "react-toastify";
+import { WEEKS_PER_LOAD, weekStartWeeksAgo, weeksBefore, dayBefore, fetchTimesheetRange } from "../../utils/timesheetRange";
 
 export default function HrManagerTimesheets() {
     const [activeTab, setActiveTab] = useState("timesheets");
@@ -20,6 +21,9 @@ export default function HrManagerTimesheets() {
     const [tsSubView, setTsSubView] = useState('summary'); // 'summary' or 'grid'
     const [selectedWeek, setSelectedWeek] = useState(null);
     const [groupedWeeks, setGroupedWeeks] = useState([]);
+    // Earliest week loaded so far; older weeks are fetched on demand
+    const [loadedFrom, setLoadedFrom] = useState(() => weekStartWeeksAgo(WEEKS_PER_LOAD - 1));
+    const [loadingEarlier, setLoadingEarlier] = useState(false);
     const navigate = useNavigate();
 
     useEffect(() => {
@@ -38,25 +42,11 @@ export default function HrManagerTimesheets() {
             const managersList = Array.isArray(managersData) ? managersData : (managersData.data || []);
             setManagers(managersList);
 
-            // 2. Fetch ALL timesheets
-            const tsRes = await api("/api/timesheets?size=1000");
-
-            if (tsRes.ok) {
-                const tsJson = await tsRes.json();
-                const allTs = tsJson.data || tsJson || [];
-
-                if (Array.isArray(allTs)) {
-                    // Filter to only include timesheets from the reporting managers
-                    const managerIds = new Set(managersList.map(m => String(m.id || m.employeeId)));
-                    const filteredTs = allTs.filter(ts => ts.employeeId && managerIds.has(String(ts.employeeId)));
-
-                    setTimesheets(filteredTs);
-                    const grouped = groupIntoWeeks(filteredTs);
-                    setGroupedWeeks(grouped);
-                }
-            } else {
-                console.error("Failed to fetch timesheets");
-            }
+            // 2. Fetch the loaded weeks of timesheets
+            const allTs = await fetchTimesheetRange(loadedFrom);
+            const filteredTs = onlyManagers(allTs, managersList);
+            setTimesheets(filteredTs);
+            setGroupedWeeks(groupIntoWeeks(filteredTs));
         } catch (err) {
             console.error("Error fetching data", err);
         } finally {
@@ -64,6 +54,29 @@ export default function HrManagerTimesheets() {
         }
     };
 
+    // Filter to only include timesheets from the reporting managers
+    const onlyManagers = (rows, managersList) => {
+        const managerIds = new Set(managersList.map(m => String(m.id || m.employeeId)));
+        return rows.filter(ts => ts.employeeId && managerIds.has(String(ts.employeeId)));
+    };
+
+    const loadEarlierWeeks = async () => {
+        try {
+            setLoadingEarlier(true);
+            const from = weeksBefore(loadedFrom, WEEKS_PER_LOAD);
+            const earlier = onlyManagers(await fetchTimesheetRange(from, dayBefore(loadedFrom)), managers);
+            const filteredTs = [...timesheets, ...earlier];
+            setTimesheets(filteredTs);
+            setGroupedWeeks(groupIntoWeeks(filteredTs));
+            setLoadedFrom(from);
+        } catch (err) {
+            console.error("Error fetching earlier timesheets", err);
+            toast.error("Failed to load earlier weeks");
+        } finally {
+            setLoadingEarlier(false);
+        }
+    };
+
     const handleLogout = () => {
         if (window.confirm("Are you sure you want to logout?")) {
             localStorage.removeItem("user");
@@ -442,6 +455,17 @@ export default function HrManagerTimesheets() {
                                                 </div>
                                             ))
                                     )}
+                                    {!loading && (
+                                        <div className="flex justify-center">
+                                            <button
+                                                onClick={loadEarlierWeeks}
+                                                disabled={loadingEarlier}
+                                                className="px-6 py-3 bg-white text-brand-blue font-black text-[10px] uppercase tracking-widest rounded-2xl border border-brand-blue/10 shadow-sm hover:shadow-xl active:scale-95 transition-all disabled:opacity-50"
+                                            >
+                                                {loadingEarlier ? "Loading..." : `Load ${WEEKS_PER_LOAD} earlier weeks`}
+                                            </button>
+                                        </div>
+                                    )}
                                 </div>
                             </>
                         ) : (
@@ -0,0 +1,50 @@
+import api from "./api";
+
+// Weeks (Saturday to Friday) loaded at a time on the admin and HR timesheet pages
+export const WEEKS_PER_LOAD = 8;
+
+const toDateStr = (date) => {
+    const month = (date.getMonth() + 1).toString().padStart(2, '0');
+    const day = date.getDate().toString().padStart(2, '0');
+    return `${date.getFullYear()}-${month}-${day}`;
+};
+
+// Saturday that starts the week `weeksBack` weeks before the current one, as YYYY-MM-DD
+export const weekStartWeeksAgo = (weeksBack) => {
+    const date = new Date();
+    date.setHours(0, 0, 0, 0);
+    date.setDate(date.getDate() - ((date.getDay() + 1) % 7) - weeksBack * 7);
+    return toDateStr(date);
+};
+
+export const dayBefore = (dateStr) => {
+    const [year, month, day] = dateStr.split('-').map(Number);
+    return toDateStr(new Date(year, month - 1, day - 1));
+};
+
+export const weeksBefore = (dateStr, weeks) => {
+    const [year, month, day] = dateStr.split('-').map(Number);
+    return toDateStr(new Date(year, month - 1, day - weeks * 7));
+};
+
+// Collects every timesheet dated from fromDate (and up to toDate, if given) from the keyset-paginated
+// listing, one bounded page per request, so no single call loads the whole table.
+export const fetchTimesheetRange = async (fromDate, toDate) => {
+    const rows = [];
+    let cursor = null;
+    do {
+        const params = new URLSearchParams({ fromDate, size: "100" });
+        if (toDate) params.set("toDate", toDate);
+        if (cursor) params.set("cursor", cursor);
+
+        const res = await api(`/api/timesheets/page?${params}`);
+        if (!res.ok) {
+            throw new Error(`Failed to fetch timesheets (${res.status})`);
+        }
+        const json = await res.json();
+        const page = json.data || {};
+        rows.push(...(page.items || []));
+        cursor = page.hasMore ? page.nextCursor : null;
+    } while (cursor);
+    return rows;
+};